@@ -2,31 +2,50 @@ package org.mvnsearch.http;
 
 import org.apache.commons.io.IOUtils;
 import org.jetbrains.annotations.Nullable;
+import org.mvnsearch.http.load.DataFileRows;
+import org.mvnsearch.http.load.LoadGenerator;
 import org.mvnsearch.http.logging.HttpxErrorCodeLogger;
 import org.mvnsearch.http.logging.HttpxErrorCodeLoggerFactory;
+import org.mvnsearch.http.model.HttpFileCache;
 import org.mvnsearch.http.model.HttpMethod;
 import org.mvnsearch.http.model.HttpRequest;
+import org.mvnsearch.http.model.HttpRequestGraph;
+import org.mvnsearch.http.model.HttpRequestIndex;
 import org.mvnsearch.http.model.HttpRequestParser;
 import org.mvnsearch.http.model.HttpRequestTarget;
+import org.mvnsearch.http.model.HttpRequestTemplate;
 import org.mvnsearch.http.model.extension.HttpxExtensionRequest;
 import org.mvnsearch.http.protocol.*;
+import org.mvnsearch.http.utils.ConsoleOutput;
+import org.mvnsearch.http.utils.DurationUtils;
 import org.mvnsearch.http.utils.JsonUtils;
+import org.mvnsearch.http.utils.RunReport;
 import org.springframework.stereotype.Component;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.net.URI;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 @SuppressWarnings({"MismatchedQueryAndUpdateOfCollection", "unused"})
 @Component
@@ -37,12 +56,40 @@ public class HttpxCommand implements Callable<Integer> {
     private List<String> unmatchedOptions;
     @Option(names = {"--completions"}, description = "Shell Completion, such as zsh, bash")
     private String completions;
+    @Option(names = {"--daemon"}, arity = "0..1", fallbackValue = "127.0.0.1:9527", description = "Daemon mode for editor plugins: listen on loopback port or unix:/path/to/httpx.sock, and default is 127.0.0.1:9527")
+    private String daemonAddress;
     @Option(names = {"-g"}, description = "Display global variables")
     private boolean displayGlobalVariables;
     @Option(names = {"-p"}, description = "Profile")
     private String[] profile;
     @Option(names = {"-x"}, description = "HTTP proxy")
     private String httpProxy;
+    @Option(names = {"--max-connections"}, description = "Max connections per host in HTTP connection pool")
+    private Integer maxConnections;
+    @Option(names = {"--max-idle-time"}, description = "Max idle time of pooled HTTP connections, such as 30s")
+    private String maxIdleTime;
+    @Option(names = {"--no-keep-alive"}, description = "Disable HTTP keep-alive")
+    private boolean noKeepAlive;
+    @Option(names = {"--http2"}, description = "Use HTTP/2 for HTTP requests: h2 for https and h2c for http, and concurrent requests are multiplexed over one connection")
+    private boolean http2;
+    @Option(names = {"--tls-verify"}, description = "Verify TLS certificate, and default is to trust all certificates")
+    private boolean tlsVerify;
+    @Option(names = {"--stream"}, description = "Write response body as it arrives instead of buffering whole body")
+    private boolean stream;
+    @Option(names = {"--max-redirect-size"}, description = "Max size of response redirected to file by '>> file', such as 512m, and default is 1g")
+    private String maxRedirectSize;
+    @Option(names = {"--response-cache"}, arity = "0..1", fallbackValue = "64m", description = "Cache GET responses under .idea/httpRequests with ETag/Last-Modified revalidation, and max size is 64m by default")
+    private String responseCache;
+    @Option(names = {"--timing-log"}, description = "Append per-phase timings of HTTP requests as JSON lines to the file")
+    private String timingLog;
+    @Option(names = {"--report"}, description = "Write report of executed requests: jsonl, junit")
+    private String reportFormat;
+    @Option(names = {"--report-file"}, description = "Report file, and default is httpx-report.jsonl or httpx-report.xml")
+    private String reportFile;
+    @Option(names = {"--js-engine"}, description = "JavaScript engine for pre-request script and response handler: node, embedded")
+    private String jsEngine;
+    @Option(names = {"--no-cache"}, description = "Disable parse cache of http file under ~/.servicex/cache")
+    private boolean noCache;
     @Option(names = {"-f", "--httpfile"}, description = "Http file, and default is index.http")
     private String httpFile;
     @Option(names = {"-t"}, description = "Targets to run")
@@ -55,6 +102,16 @@ public class HttpxCommand implements Callable<Integer> {
     private boolean summary;
     @Option(names = {"-a"}, description = "Run all requests")
     private boolean runAllRequests = false;
+    @Option(names = {"--parallel"}, description = "Max concurrent requests for -a, multi targets and --load, and default is 1")
+    private int parallel = 1;
+    @Option(names = {"--load"}, description = "Load mode: repeat targets in round-robin for a duration and print latency histogram")
+    private boolean loadMode;
+    @Option(names = {"--duration"}, description = "Duration for load mode, such as 30s or 5m, and default is 10s")
+    private String loadDuration = "10s";
+    @Option(names = {"--rate"}, description = "Fixed rate for load mode in requests per second, and default is unlimited")
+    private int loadRate = 0;
+    @Option(names = {"--data-file"}, description = "Run targets, or all requests with -a, for every row of data file(.jsonl or .csv with header), and fields of row are bound as variables")
+    private String dataFile;
     @Parameters(description = "targets to run")
     private List<String> targets;
     private boolean requestFromStdin = false;
@@ -62,9 +119,13 @@ public class HttpxCommand implements Callable<Integer> {
      * body from input - stdin, data text, @file or http url
      */
     private byte[] bodyFromInput = null;
+    private Path bodyFileFromInput = null;
+    private RunReport runReport = null;
 
     @Override
     public Integer call() {
+        // buffered stdout if not terminal
+        ConsoleOutput.install();
         // display global variables
         if (displayGlobalVariables) {
             printGlobalVariables();
@@ -77,6 +138,13 @@ public class HttpxCommand implements Callable<Integer> {
             printShellCompletion();
             return 0;
         }
+        if (jsEngine != null) {
+            System.setProperty("httpx.jsEngine", jsEngine);
+        }
+        // daemon mode for editor plugins
+        if (daemonAddress != null) {
+            return new HttpxDaemon(this, daemonAddress).start();
+        }
         String httpCode = null;
         //read input from stdin
         String httpCodeOrBody = readHttpCodeOrBodyFromStdin();
@@ -125,7 +193,25 @@ public class HttpxCommand implements Callable<Integer> {
             return -1;
         }
         try {
-            Map<String, Object> context = requestFromStdin ? new HashMap<>() : constructHttpClientContext(Path.of(httpFile));
+            Map<String, Object> context;
+            Map<String, Object> globalVariables;
+            List<HttpRequest> requests;
+            final HttpFileCache httpFileCache = requestFromStdin || noCache ? null : new HttpFileCache(Path.of(httpFile), contextFiles(Path.of(httpFile)));
+            final HttpFileCache.Entry cacheEntry = httpFileCache == null ? null : httpFileCache.load();
+            if (cacheEntry != null) {
+                context = cacheEntry.context() != null ? cacheEntry.context() : constructHttpClientContext(Path.of(httpFile));
+                globalVariables = cacheEntry.globalVariables();
+                requests = cacheEntry.toRequests(httpCode);
+            } else {
+                context = requestFromStdin ? new HashMap<>() : constructHttpClientContext(Path.of(httpFile));
+                globalVariables = loadGlobalVariables();
+                requests = HttpRequestParser.splitRequests(httpCode);
+                // save before context changed by profile and options, and requests parsed
+                if (httpFileCache != null) {
+                    // context with secrets of http-client.private.env.json is not written into cache
+                    httpFileCache.save(requests, privateEnvJsonFile(Path.of(httpFile)).exists() ? null : context, globalVariables);
+                }
+            }
             if (!context.isEmpty()) {
                 String activeProfile;
                 if (profile != null && profile.length > 0) { // get profile from command line
@@ -149,9 +235,7 @@ public class HttpxCommand implements Callable<Integer> {
                 }
             }
             // load global variables into context
-            injectGlobalVariables(context);
-            // parse http requests
-            final List<HttpRequest> requests = HttpRequestParser.splitRequests(httpCode);
+            injectGlobalVariables(context, globalVariables);
             // list summary for code completion
             if (summary) {
                 for (HttpRequest request : requests) {
@@ -172,7 +256,9 @@ public class HttpxCommand implements Callable<Integer> {
             // list all requests
             if (listRequests) {
                 for (HttpRequest request : requests) {
-                    HttpRequestParser.parse(request, context);
+                    // request line only, and pre-script, headers and body are not parsed
+                    final String requestLine = HttpRequestParser.replaceVariables(request.getRequestLine(), context);
+                    final HttpRequestTarget requestTarget = HttpRequestTarget.valueOf(request.getMethod().getName(), requestLine);
                     String comment = request.getComment();
                     if (comment == null) {
                         comment = "";
@@ -180,9 +266,9 @@ public class HttpxCommand implements Callable<Integer> {
                         comment = ": " + comment;
                     }
                     if (request.getName() != null) {
-                        System.out.println(request.getIndex() + ". " + request.getName() + comment + " - " + request.getRequestTarget().getUri());
+                        System.out.println(request.getIndex() + ". " + request.getName() + comment + " - " + requestTarget.getUri());
                     } else {
-                        System.out.println(request.getIndex() + ". " + comment + " - " + request.getRequestTarget().getUri());
+                        System.out.println(request.getIndex() + ". " + comment + " - " + requestTarget.getUri());
                     }
                 }
                 return 0;
@@ -199,13 +285,50 @@ public class HttpxCommand implements Callable<Integer> {
                 System.setProperty("http.proxyHost", proxyUri.getHost());
                 System.setProperty("http.proxyPort", "" + proxyUri.getPort());
             }
+            //http connection pool configuration
+            if (maxConnections != null) {
+                System.setProperty("httpx.maxConnections", String.valueOf(maxConnections));
+            }
+            if (maxIdleTime != null) {
+                System.setProperty("httpx.maxIdleTime", maxIdleTime);
+            }
+            if (noKeepAlive) {
+                System.setProperty("httpx.keepAlive", "false");
+            }
+            if (tlsVerify) {
+                System.setProperty("httpx.tlsVerify", "true");
+            }
+            if (http2) {
+                System.setProperty("httpx.http2", "true");
+            }
+            if (stream) {
+                System.setProperty("httpx.stream", "true");
+            }
+            if (maxRedirectSize != null) {
+                System.setProperty("httpx.maxRedirectSize", maxRedirectSize);
+            }
+            if (responseCache != null) {
+                System.setProperty("httpx.responseCache", responseCache);
+            }
+            if (timingLog != null) {
+                System.setProperty("httpx.timingLog", Path.of(timingLog).toAbsolutePath().toString());
+            }
+            if (reportFormat != null) {
+                try {
+                    runReport = RunReport.open(reportFormat, reportFile);
+                } catch (Exception e) {
+                    log.error("HTX-001-507", reportFormat, e);
+                    return -1;
+                }
+            }
+            final HttpRequestIndex requestIndex = new HttpRequestIndex(requests);
             //run all requests
             if (runAllRequests) {
-                for (HttpRequest request : requests) {
-                    System.out.println("=============" + request.getName() + "==================");
-                    HttpRequestParser.parse(request, context);
-                    execute(request, httpFilePath);
+                // all requests are executed for every row with `-a --data-file`
+                if (dataFile != null) {
+                    return runDataFile(requests, context, httpFilePath);
                 }
+                executeRequests(requests, requestIndex, context, httpFilePath, true);
                 return 0;
             }
             //set targets from --target option if targets empty
@@ -216,25 +339,29 @@ public class HttpxCommand implements Callable<Integer> {
             if (targets == null || targets.isEmpty()) {
                 targets = List.of("1");
             }
-            boolean targetFound = false;
+            List<HttpRequest> targetRequests = new ArrayList<>();
             for (String target : targets) {
-                for (HttpRequest request : requests) {
-                    if (request.match(target)) {
-                        if (targetFound) { // seperate line for multi targets
-                            System.out.println("=========================================");
-                        }
-                        targetFound = true;
-                        HttpRequestParser.parse(request, context);
-                        execute(request, httpFilePath);
-                    }
-                }
+                targetRequests.addAll(requestIndex.find(target));
             }
-            if (!targetFound) {
+            if (targetRequests.isEmpty()) {
                 System.err.println("Target not found in http file: " + String.join(",", targets));
+            } else if (loadMode) {
+                return runLoad(targetRequests, context, httpFilePath);
+            } else if (dataFile != null) {
+                return runDataFile(targetRequests, context, httpFilePath);
+            } else {
+                executeRequests(targetRequests, requestIndex, context, httpFilePath, false);
             }
         } catch (Exception e) {
             log.error("HTX-002-500", httpFile, e);
             return -1;
+        } finally {
+            if (runReport != null) {
+                try {
+                    runReport.close();
+                } catch (Exception ignore) {
+                }
+            }
         }
         return 0;
     }
@@ -244,13 +371,10 @@ public class HttpxCommand implements Callable<Integer> {
         Map<String, Object> context = new HashMap<>();
         final Path httpFileDir = httpFilePath.toAbsolutePath().getParent();
         File envJsonFile = httpFileDir.resolve("http-client.env.json").toFile();
-        File envPrivateJsonFile = httpFileDir.resolve("http-client.private.env.json").toFile();
+        final File envPrivateJsonFile = privateEnvJsonFile(httpFilePath);
         if (!envJsonFile.exists()) { // resolve http-client.env.json from current directory if not found
             envJsonFile = Paths.get("http-client.env.json").toFile();
         }
-        if (!envPrivateJsonFile.exists()) { // resolve http-client.private.env.json from current directory if not found
-            envPrivateJsonFile = Paths.get("http-client.private.env.json").toFile();
-        }
         if (envJsonFile.exists()) { // load env.json into context
             final Map<String, Object> env = JsonUtils.readValue(envJsonFile, Map.class);
             context.putAll(env);
@@ -297,8 +421,28 @@ public class HttpxCommand implements Callable<Integer> {
         return context;
     }
 
-    private void injectGlobalVariables(Map<String, Object> context) {
-        Map<String, Object> globalVariables = loadGlobalVariables();
+    /**
+     * http-client.private.env.json next to http file, or in current directory if not found
+     */
+    private File privateEnvJsonFile(Path httpFilePath) {
+        final File envPrivateJsonFile = httpFilePath.toAbsolutePath().getParent().resolve("http-client.private.env.json").toFile();
+        return envPrivateJsonFile.exists() ? envPrivateJsonFile : Paths.get("http-client.private.env.json").toFile();
+    }
+
+    /**
+     * files to construct context, and they are checked by parse cache
+     */
+    private List<Path> contextFiles(Path httpFilePath) {
+        final Path httpFileDir = httpFilePath.toAbsolutePath().getParent();
+        return List.of(httpFileDir.resolve("http-client.env.json"),
+                httpFileDir.resolve("http-client.private.env.json"),
+                Paths.get("http-client.env.json"),
+                Paths.get("http-client.private.env.json"),
+                httpFileDir.resolve(".vscode/settings.json"),
+                Path.of(System.getProperty("user.home")).resolve(".servicex").resolve("global_variables.json"));
+    }
+
+    private void injectGlobalVariables(Map<String, Object> context, Map<String, Object> globalVariables) {
         for (Map.Entry<String, Object> entry : globalVariables.entrySet()) {
             if (!context.containsKey(entry.getKey())) {
                 context.put(entry.getKey(), entry.getValue());
@@ -321,106 +465,299 @@ public class HttpxCommand implements Callable<Integer> {
         return Map.of();
     }
 
-    public void execute(HttpRequest httpRequest, @Nullable Path httpFilePath) throws Exception {
+    /**
+     * execute requests one by one, or concurrently with `--parallel N` and output flushed in request order
+     */
+    private void executeRequests(List<HttpRequest> requests, HttpRequestIndex requestIndex, Map<String, Object> context, @Nullable Path httpFilePath, boolean printName) throws Exception {
+        // requests with `{{name.response.body.$.id}}` are executed as dependency graph
+        final HttpRequestGraph requestGraph;
+        try {
+            requestGraph = HttpRequestGraph.build(requests, requestIndex);
+        } catch (IllegalArgumentException e) {
+            log.error("HTX-002-505", e.getMessage());
+            return;
+        }
+        if (requestGraph.hasDependencies()) {
+            executeGraph(requestGraph, context, httpFilePath);
+            return;
+        }
+        if (parallel <= 1 || requests.size() <= 1) {
+            // parse then execute one by one, and pre-script can read globals set by response handler of previous request
+            for (int i = 0; i < requests.size(); i++) {
+                final HttpRequest request = requests.get(i);
+                HttpRequestParser.parse(request, context);
+                executeWithBanner(request, i, httpFilePath, printName);
+                System.out.flush();
+            }
+            return;
+        }
+        // parallel mode: all requests are parsed in order before execution, so pre-scripts can't read globals set by
+        // response handlers of other requests in the same run, and use dependency by `{{name.response.body...}}` instead
+        for (HttpRequest request : requests) {
+            HttpRequestParser.parse(request, context);
+        }
+        ConsoleOutput.install();
+        final Scheduler scheduler = Schedulers.newBoundedElastic(parallel, requests.size(), "httpx-parallel");
+        try {
+            Flux.range(0, requests.size())
+                    // failure of a request is appended to its output, and other requests keep going
+                    .flatMapSequential(i -> Mono.fromCallable(() -> ConsoleOutput.capture(() -> {
+                        executeWithBanner(requests.get(i), i, httpFilePath, printName);
+                        return null;
+                    }, e -> "\nError: " + e.getClass().getSimpleName() + ": " + e.getMessage() + "\n")).subscribeOn(scheduler), parallel)
+                    .doOnNext(ConsoleOutput::flush)
+                    .blockLast();
+        } finally {
+            scheduler.dispose();
+        }
+    }
+
+    /**
+     * execute requests of dependency graph: a request is started after its dependencies completed, and independent
+     * requests run concurrently with `--parallel N`. Referenced response values are extracted in process and bound as variables.
+     */
+    private void executeGraph(HttpRequestGraph requestGraph, Map<String, Object> context, @Nullable Path httpFilePath) {
+        final Map<String, Object> responseValues = new ConcurrentHashMap<>();
+        final Map<HttpRequest, Mono<Boolean>> executions = new HashMap<>();
+        final Scheduler scheduler = Schedulers.newBoundedElastic(Math.max(parallel, 1), Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "httpx-graph");
+        ConsoleOutput.install();
+        try {
+            // requests are in topological order, so executions of dependencies are created before
+            for (HttpRequest request : requestGraph.getRequests()) {
+                final List<Mono<Boolean>> dependencies = requestGraph.getDependencies(request).stream().map(executions::get).toList();
+                final Mono<Boolean> execution = Flux.concat(dependencies)
+                        .all(success -> success)
+                        .publishOn(scheduler)
+                        .map(dependenciesCompleted -> {
+                            if (!dependenciesCompleted) {
+                                ConsoleOutput.flush(("Skipped " + request.getName() + ": dependency failed\n").getBytes(StandardCharsets.UTF_8));
+                                return false;
+                            }
+                            return executeNode(request, requestGraph, context, responseValues, httpFilePath);
+                        })
+                        .cache();
+                executions.put(request, execution);
+            }
+            Flux.merge(executions.values()).blockLast();
+        } finally {
+            scheduler.dispose();
+        }
+    }
+
+    private boolean executeNode(HttpRequest request, HttpRequestGraph requestGraph, Map<String, Object> context,
+                                Map<String, Object> responseValues, @Nullable Path httpFilePath) {
+        final AtomicBoolean success = new AtomicBoolean(false);
+        final AtomicReference<Exception> error = new AtomicReference<>();
+        final byte[] output = ConsoleOutput.capture(() -> {
+            System.out.println("=============" + request.getName() + "==================");
+            Map<String, Object> requestContext = new HashMap<>(context);
+            requestContext.putAll(responseValues);
+            HttpRequestParser.parse(request, requestContext);
+            // values are extracted from whole body, so streaming and `>> file` redirect are disabled in executor
+            request.setBufferedResponse(requestGraph.isDependency(request));
+            final List<byte[]> result = execute(request, httpFilePath);
+            if (request.isResponseSuccessful()) {
+                final ByteArrayOutputStream body = new ByteArrayOutputStream();
+                for (byte[] bytes : result) {
+                    body.write(bytes);
+                }
+                responseValues.putAll(requestGraph.extractValues(request, body.toByteArray()));
+                success.set(true);
+            }
+            return null;
+        }, e -> {
+            error.set(e);
+            return "";
+        });
+        // partial output before failure is kept
+        ConsoleOutput.flush(output);
+        if (error.get() != null) {
+            log.error("HTX-100-500", error.get());
+        }
+        return success.get();
+    }
+
+    /**
+     * load mode: repeat the parsed requests with `--parallel` workers or `--rate` for `--duration`, and output of requests is discarded.
+     * Multiple targets are executed in round-robin.
+     */
+    private int runLoad(List<HttpRequest> requests, Map<String, Object> context, @Nullable Path httpFilePath) throws Exception {
+        // compile once, and functions such as `{{$random.uuid}}` are evaluated for every iteration
+        final List<HttpRequestTemplate> requestTemplates = new ArrayList<>(requests.size());
+        for (HttpRequest request : requests) {
+            requestTemplates.add(HttpRequestTemplate.compile(request, context));
+        }
+        final LoadGenerator loadGenerator = new LoadGenerator(parallel, loadRate, DurationUtils.parse(loadDuration));
+        final StringBuilder targetsText = new StringBuilder();
+        for (HttpRequestTemplate requestTemplate : requestTemplates) {
+            final HttpRequest firstRequest = requestTemplate.render();
+            if (!targetsText.isEmpty()) {
+                targetsText.append(", ");
+            }
+            targetsText.append(firstRequest.getMethod().getName()).append(' ').append(firstRequest.getRequestTarget().getUri());
+        }
+        System.out.println("Load " + targetsText + " for " + loadDuration + " with " + parallel + " workers"
+                + (loadRate > 0 ? " at " + loadRate + " req/s" : ""));
+        ConsoleOutput.install();
+        final AtomicLong iterations = new AtomicLong();
+        loadGenerator.run(() -> {
+            final int index = (int) (iterations.getAndIncrement() % requestTemplates.size());
+            final HttpRequest iteration = requestTemplates.get(index).render();
+            ConsoleOutput.capture(() -> {
+                execute(iteration, httpFilePath);
+                return null;
+            });
+            return iteration.isResponseSuccessful();
+        });
+        System.out.println(loadGenerator.report());
+        return loadGenerator.getErrors() > 0 || loadGenerator.getDropped() > 0 ? 1 : 0;
+    }
+
+    /**
+     * data-driven mode: rows of `--data-file` are streamed and targets are executed for every row with `--parallel` workers,
+     * and output of requests is discarded with a result line per row.
+     * Pre-script of target is executed once when target compiled, so fields of row are not available in pre-script.
+     */
+    private int runDataFile(List<HttpRequest> requests, Map<String, Object> context, @Nullable Path httpFilePath) throws Exception {
+        final Path dataFilePath = Path.of(dataFile);
+        if (!dataFilePath.toFile().exists()) {
+            log.error("HTX-001-501", dataFile);
+            return -1;
+        }
+        final List<HttpRequestTemplate> requestTemplates = new ArrayList<>(requests.size());
+        for (HttpRequest request : requests) {
+            requestTemplates.add(HttpRequestTemplate.compile(request, context));
+        }
+        final int concurrency = Math.max(parallel, 1);
+        final LongAdder total = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final long startNanos = System.nanoTime();
+        ConsoleOutput.install();
+        final Scheduler scheduler = Schedulers.newBoundedElastic(concurrency, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "httpx-data");
+        try (DataFileRows rows = DataFileRows.open(dataFilePath)) {
+            Flux.fromIterable(() -> rows)
+                    .index()
+                    .flatMapSequential(row -> Mono.fromCallable(() -> executeRow(row.getT1() + 1, row.getT2(), requestTemplates, httpFilePath))
+                            .subscribeOn(scheduler), concurrency)
+                    .doOnNext(results -> {
+                        for (RowResult result : results) {
+                            total.increment();
+                            if (!result.success()) {
+                                failures.increment();
+                            }
+                            System.out.println(result);
+                        }
+                    })
+                    .blockLast();
+        } catch (Exception e) {
+            log.error("HTX-001-506", dataFile, e);
+            return -1;
+        } finally {
+            scheduler.dispose();
+        }
+        System.out.printf("Requests: %d, Failures: %d, Duration: %.2fs%n", total.sum(), failures.sum(), (System.nanoTime() - startNanos) / 1_000_000_000.0);
+        return failures.sum() > 0 ? 1 : 0;
+    }
+
+    /**
+     * execute targets for a row of data file
+     *
+     * @return results of targets
+     */
+    private List<RowResult> executeRow(long rowNumber, Map<String, Object> row, List<HttpRequestTemplate> requestTemplates, @Nullable Path httpFilePath) {
+        List<RowResult> results = new ArrayList<>(requestTemplates.size());
+        for (HttpRequestTemplate requestTemplate : requestTemplates) {
+            final long start = System.nanoTime();
+            String name = "";
+            Integer status = null;
+            String error = null;
+            boolean success;
+            try {
+                final HttpRequest request = requestTemplate.render(row);
+                name = request.getName();
+                ConsoleOutput.capture(() -> {
+                    execute(request, httpFilePath);
+                    return null;
+                });
+                status = request.getResponseStatus();
+                success = request.isResponseSuccessful();
+                error = request.getResponseError();
+            } catch (Exception e) {
+                success = false;
+                error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            }
+            results.add(new RowResult(rowNumber, name, success, status, error, (System.nanoTime() - start) / 1_000_000.0));
+        }
+        return results;
+    }
+
+    private record RowResult(long rowNumber, String name, boolean success, @Nullable Integer status, @Nullable String error, double millis) {
+        @Override
+        public String toString() {
+            final String result = String.format("#%d %s %s %s %.2fms", rowNumber, name, success ? "OK" : "FAIL",
+                    status != null ? status : (success ? "-" : "No response"), millis);
+            return error == null ? result : result + " " + error;
+        }
+    }
+
+    private void executeWithBanner(HttpRequest request, int position, @Nullable Path httpFilePath, boolean printName) throws Exception {
+        if (printName) {
+            System.out.println("=============" + request.getName() + "==================");
+        } else if (position > 0) { // seperate line for multi targets
+            System.out.println("=========================================");
+        }
+        execute(request, httpFilePath);
+    }
+
+    public List<byte[]> execute(HttpRequest httpRequest, @Nullable Path httpFilePath) throws Exception {
+        final long start = System.nanoTime();
+        Exception error = null;
+        try {
+            return doExecute(httpRequest, httpFilePath);
+        } catch (Exception e) {
+            error = e;
+            throw e;
+        } finally {
+            if (runReport != null) {
+                runReport.record(httpRequest, (System.nanoTime() - start) / 1_000_000.0, error);
+            }
+        }
+    }
+
+    private List<byte[]> doExecute(HttpRequest httpRequest, @Nullable Path httpFilePath) throws Exception {
         httpRequest.cleanBody(httpFilePath);
         //reset body from input
         if (bodyFromInput != null && bodyFromInput.length > 0) {
             httpRequest.setBodyBytes(bodyFromInput);
+        } else if (bodyFileFromInput != null) {
+            httpRequest.setBodyFile(bodyFileFromInput);
         }
-        final HttpMethod requestMethod = httpRequest.getMethod();
-        String host = httpRequest.getRequestTarget().getHost();
+        final BaseExecutor executor = ExecutorRegistry.getExecutor(httpRequest);
         List<byte[]> result;
-        if (requestMethod.isHttpMethod()) {
-            result = new HttpExecutor().execute(httpRequest);
-        } else if (requestMethod.isWebSocketMethod()) {
-            result = new WebSocketExecutor().execute(httpRequest);
-        } else if (requestMethod.isRestMethod()) {
-            result = new JsonRestExecutor().execute(httpRequest);
-        } else if (requestMethod.isRSocketMethod()) {
-            result = new RSocketExecutor().execute(httpRequest);
-        } else if (requestMethod.isGrpcMethod()) {
-            result = new GrpcExecutor().execute(httpRequest);
-        } else if (requestMethod.isGraphQLMethod()) {
-            final String uri = httpRequest.getRequestTarget().getUri().toString();
-            if (uri.startsWith("rsocket")) { // GraphQL over RSocket
-                result = new RSocketExecutor().execute(httpRequest);
-            } else {
-                result = new GraphqlExecutor().execute(httpRequest);
-            }
-        } else if (requestMethod.isDubboMethod()) {
-            result = new DubboExecutor().execute(httpRequest);
-        } else if (requestMethod.isSofaMethod()) {
-            result = new SofaRpcExecutor().execute(httpRequest);
-        } else if (requestMethod.isTarpcMethod()) {
-            result = new TarpcExecutor().execute(httpRequest);
-        } else if (requestMethod.isMsgpackMethod()) {
-            result = new MsgpackRpcExecutor().execute(httpRequest);
-        } else if (requestMethod.isNvimMethod()) {
-            result = new NeovimExecutor().execute(httpRequest);
-        } else if (requestMethod.isJsonRPCMethod()) {
-            result = new JsonRpcExecutor().execute(httpRequest);
-        } else if (requestMethod.isTRPCMethod()) {
-            result = new TrpcExecutor().execute(httpRequest);
-        } else if (requestMethod.isThriftMethod()) {
-            result = new ThriftExecutor().execute(httpRequest);
-        } else if (requestMethod.isZeromqMethod()) {
-            result = new ZeromqExecutor().execute(httpRequest);
-        } else if (requestMethod.isMailMethod()) {
-            result = new MailExecutor().execute(httpRequest);
-        } else if (requestMethod.isPubMethod()) {
-            result = new MessagePublishExecutor().execute(httpRequest);
-        } else if (requestMethod.isSubMethod()) {
-            result = new MessageSubscribeExecutor().execute(httpRequest);
-        } else if (requestMethod.isMemcacheMethod()) {
-            result = new MemcacheExecutor().execute(httpRequest);
-        } else if (requestMethod.isRedisMethod()) {
-            result = new RedisExecutor().execute(httpRequest);
-        } else if (requestMethod.isSSHMethod()) {
-            result = new SSHExecutor().execute(httpRequest);
-        } else if (requestMethod.isAwsMethod() || (host.endsWith(".amazonaws.com") && requestMethod.isHttpMethod())) {
-            result = new AwsExecutor().execute(httpRequest);
-        } else if (requestMethod.isAliyunMethod()) {
-            result = new AliyunExecutor().execute(httpRequest);
-        } else if (requestMethod.isChatGPTMethod()) {
-            result = new ChatGPTExecutor().execute(httpRequest);
+        if (executor != null) {
+            result = executor.execute(httpRequest);
         } else {
             result = Collections.emptyList();
-            System.out.print("Not support: " + requestMethod.getName());
+            System.out.print("Not support: " + httpRequest.getMethod().getName());
         }
         System.out.println();
-        //disable response written to file because of security
-        /*if (!requestFromStdin) { // if request from stdin, ignore to write response to file
-            if (httpRequest.getRedirectResponse() != null && !result.isEmpty()) {
-                writeResponse(httpRequest.getRedirectResponse(), result);
-            }
-        }*/
+        // HTTP responses are redirected by executor as streaming, and others are written from result
+        if (httpRequest.getRedirectResponse() != null && !httpRequest.isResponseRedirected() && !result.isEmpty()) {
+            writeResponse(httpRequest, result);
+        }
+        return result;
     }
 
-    void writeResponse(String redirectResponse, List<byte[]> content) {
-        String[] parts = redirectResponse.split("\\s+", 2);
-        String responseFile = parts[1];
-        try {
-            final Path httpFilePath = Path.of(httpFile);
-            Path responseFilePath;
-            if (responseFile.startsWith("/") || responseFile.contains(":\\")) {
-                responseFilePath = Path.of(responseFile);
-            } else {
-                responseFilePath = httpFilePath.toAbsolutePath().getParent().resolve(responseFile);
-            }
-            final File parentDir = responseFilePath.toAbsolutePath().getParent().toFile();
-            if (!parentDir.exists()) {
-                //noinspection ResultOfMethodCallIgnored
-                parentDir.mkdirs();
-            }
-            try (FileOutputStream fos = new FileOutputStream(responseFilePath.toFile())) {
-                for (byte[] bytes : content) {
-                    fos.write(bytes);
-                }
+    void writeResponse(HttpRequest httpRequest, List<byte[]> content) {
+        final ResponseFileSink fileSink = ResponseFileSink.open(httpRequest);
+        if (fileSink != null) {
+            try {
+                fileSink.write(content);
+                fileSink.close();
+            } catch (Exception e) {
+                fileSink.abort();
+                log.error("HTX-001-500", httpRequest.getRedirectResponse(), e);
             }
-            System.out.println("---------------------------------");
-            System.out.println("Write to " + responseFile + " successfully!");
-        } catch (Exception e) {
-            log.error("HTX-001-500", responseFile);
         }
     }
 
@@ -483,16 +820,20 @@ public class HttpxCommand implements Callable<Integer> {
     private void resolveBodyData(@Nullable Path httpFilePath) throws Exception {
         if (bodyData != null) {
             if (bodyData.startsWith("@")) {  //read data from file
+                // file is streamed by HTTP executor, and read on demand by others
                 String dataFilePath = bodyData.substring(1);
                 if (dataFilePath.startsWith("/") || dataFilePath.contains(":\\")) { // linux/windows absolute path
-                    bodyFromInput = Files.readAllBytes(Path.of(dataFilePath));
+                    bodyFileFromInput = Path.of(dataFilePath);
                 } else { //relative path
                     if (httpFilePath != null) { // read file relative to http file path
-                        bodyFromInput = Files.readAllBytes(httpFilePath.toAbsolutePath().getParent().resolve(dataFilePath));
+                        bodyFileFromInput = httpFilePath.toAbsolutePath().getParent().resolve(dataFilePath);
                     } else { // read file relative to current directory
-                        bodyFromInput = Files.readAllBytes(Path.of(dataFilePath));
+                        bodyFileFromInput = Path.of(dataFilePath);
                     }
                 }
+                if (!Files.isReadable(bodyFileFromInput)) {
+                    throw new NoSuchFileException(bodyFileFromInput.toString());
+                }
             } else if (bodyData.startsWith("https://") || bodyData.startsWith("http://")) {
                 bodyFromInput = IOUtils.toByteArray(new URL(bodyData));
             } else {
@@ -504,28 +845,32 @@ public class HttpxCommand implements Callable<Integer> {
     public int executeExtensionRequest(String extensionRequestJson) {
         try {
             final HttpxExtensionRequest extensionRequest = JsonUtils.readValue(extensionRequestJson, HttpxExtensionRequest.class);
-            HttpRequest httpRequest = new HttpRequest();
-            httpRequest.setMethod(HttpMethod.valueOf(extensionRequest.getMethod()));
-            HttpRequestTarget requestTarget = new HttpRequestTarget();
-            final URI uri = URI.create(extensionRequest.getUri());
-            requestTarget.setUri(uri);
-            requestTarget.setHost(uri.getHost());
-            httpRequest.setRequestTarget(requestTarget);
-            final Map<String, String> headers = extensionRequest.getHeaders();
-            if (headers != null && !headers.isEmpty()) {
-                for (Map.Entry<String, String> entry : headers.entrySet()) {
-                    httpRequest.addHttpHeader(entry.getKey(), entry.getValue());
-                }
-            }
-            final byte[] body = extensionRequest.getBody();
-            if (body != null && body.length > 0) {
-                httpRequest.setBodyBytes(body);
-            }
-            execute(httpRequest, null);
+            execute(convertExtensionRequest(extensionRequest), null);
         } catch (Exception e) {
             log.error("HTX-401-500", e);
             return -1;
         }
         return 0;
     }
-}
\ No newline at end of file
+
+    public HttpRequest convertExtensionRequest(HttpxExtensionRequest extensionRequest) {
+        HttpRequest httpRequest = new HttpRequest();
+        httpRequest.setMethod(HttpMethod.valueOf(extensionRequest.getMethod()));
+        HttpRequestTarget requestTarget = new HttpRequestTarget();
+        final URI uri = URI.create(extensionRequest.getUri());
+        requestTarget.setUri(uri);
+        requestTarget.setHost(uri.getHost());
+        httpRequest.setRequestTarget(requestTarget);
+        final Map<String, String> headers = extensionRequest.getHeaders();
+        if (headers != null && !headers.isEmpty()) {
+            for (Map.Entry<String, String> entry : headers.entrySet()) {
+                httpRequest.addHttpHeader(entry.getKey(), entry.getValue());
+            }
+        }
+        final byte[] body = extensionRequest.getBody();
+        if (body != null && body.length > 0) {
+            httpRequest.setBodyBytes(body);
+        }
+        return httpRequest;
+    }
+}
@@ -0,0 +1,153 @@
+package org.mvnsearch.http;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import org.mvnsearch.http.logging.HttpxErrorCodeLogger;
+import org.mvnsearch.http.logging.HttpxErrorCodeLoggerFactory;
+import org.mvnsearch.http.model.HttpRequest;
+import org.mvnsearch.http.model.extension.HttpxExtensionRequest;
+import org.mvnsearch.http.model.extension.HttpxExtensionResponse;
+import org.mvnsearch.http.protocol.HttpClientRegistry;
+import org.mvnsearch.http.utils.ConsoleOutput;
+import org.mvnsearch.http.utils.JsonUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * httpx daemon for editor plugins: read a stream of HttpxExtensionRequest JSON documents from loopback port or unix socket,
+ * and write one HttpxExtensionResponse JSON per line back. Status is 502 if HTTP request got no response,
+ * and `X-Httpx-Body: redirected|streamed` header is added if body is not included in response.
+ *
+ * @author linux_china
+ */
+public class HttpxDaemon {
+    private static final HttpxErrorCodeLogger log = HttpxErrorCodeLoggerFactory.getLogger(HttpxDaemon.class);
+    private final HttpxCommand httpxCommand;
+    private final String address;
+
+    public HttpxDaemon(HttpxCommand httpxCommand, String address) {
+        this.httpxCommand = httpxCommand;
+        this.address = address;
+    }
+
+    public int start() {
+        final ExecutorService workers = Executors.newCachedThreadPool();
+        // daemon is stopped by signal mostly, and pooled connections should be closed on exit
+        final Thread shutdownHook = new Thread(() -> {
+            workers.shutdownNow();
+            HttpClientRegistry.dispose();
+        });
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        try (ServerSocketChannel serverChannel = bind(address)) {
+            ConsoleOutput.install();
+            System.out.println("httpx daemon listening on " + address);
+            //noinspection InfiniteLoopStatement
+            while (true) {
+                final SocketChannel channel = serverChannel.accept();
+                workers.execute(() -> serve(channel));
+            }
+        } catch (Exception e) {
+            log.error("HTX-402-500", address, e);
+            return -1;
+        } finally {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException ignore) {
+                // shutdown in progress
+            }
+            workers.shutdownNow();
+            HttpClientRegistry.dispose();
+        }
+    }
+
+    private ServerSocketChannel bind(String address) throws Exception {
+        if (address.startsWith("unix:")) {
+            final Path socketPath = Path.of(address.substring(5));
+            Files.deleteIfExists(socketPath);
+            socketPath.toFile().deleteOnExit();
+            final ServerSocketChannel serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            serverChannel.bind(UnixDomainSocketAddress.of(socketPath));
+            return serverChannel;
+        }
+        String host = "127.0.0.1";
+        String port = address;
+        if (address.contains(":")) {
+            host = address.substring(0, address.lastIndexOf(':'));
+            port = address.substring(address.lastIndexOf(':') + 1);
+        }
+        final InetSocketAddress socketAddress = new InetSocketAddress(host, Integer.parseInt(port));
+        if (socketAddress.getAddress() == null || !socketAddress.getAddress().isLoopbackAddress()) { // requests are executed for clients, so only loopback allowed
+            throw new IllegalArgumentException("Only loopback address is allowed for daemon: " + address);
+        }
+        final ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(socketAddress);
+        return serverChannel;
+    }
+
+    private void serve(SocketChannel channel) {
+        try (channel; InputStream input = Channels.newInputStream(channel); OutputStream output = Channels.newOutputStream(channel)) {
+            final MappingIterator<HttpxExtensionRequest> requests = JsonUtils.OBJECT_MAPPER.readerFor(HttpxExtensionRequest.class).readValues(input);
+            while (requests.hasNextValue()) {
+                final HttpxExtensionResponse response = handle(requests.nextValue());
+                output.write(JsonUtils.writeValueAsBytes(response));
+                output.write('\n');
+                output.flush();
+            }
+        } catch (Exception e) {
+            log.error("HTX-402-501", e);
+        }
+    }
+
+    public HttpxExtensionResponse handle(HttpxExtensionRequest extensionRequest) {
+        final HttpxExtensionResponse response = new HttpxExtensionResponse();
+        try {
+            final HttpRequest httpRequest = httpxCommand.convertExtensionRequest(extensionRequest);
+            final AtomicReference<List<byte[]>> result = new AtomicReference<>(Collections.emptyList());
+            final byte[] consoleOutput = ConsoleOutput.capture(() -> result.getAndSet(httpxCommand.execute(httpRequest, null)));
+            final Integer status = httpRequest.getResponseStatus();
+            final String message = new String(consoleOutput, StandardCharsets.UTF_8);
+            if (httpRequest.getResponseError() != null) {
+                // executor logged the error and no response received
+                response.setStatus(502);
+                response.setMessage(message.isBlank() ? httpRequest.getResponseError() : message + "\n" + httpRequest.getResponseError());
+                return response;
+            }
+            // other protocols don't have status
+            response.setStatus(status != null ? status : 200);
+            response.setMessage(message);
+            final ByteArrayOutputStream body = new ByteArrayOutputStream();
+            for (byte[] bytes : result.get()) {
+                body.write(bytes);
+            }
+            final Map<String, String> headers = httpRequest.getResponseHeaders() == null ? new HashMap<>() : new HashMap<>(httpRequest.getResponseHeaders());
+            if (body.size() == 0 && httpRequest.getResponseBytes() > 0) {
+                // body is not in response: redirected to file by `>> file`, or streamed into message
+                headers.put("X-Httpx-Body", httpRequest.isResponseRedirected() ? "redirected" : "streamed");
+            }
+            response.setHeaders(headers);
+            response.setBody(body.toByteArray());
+        } catch (Exception e) {
+            log.error("HTX-401-500", e);
+            response.setStatus(500);
+            response.setMessage(e.getMessage());
+        }
+        return response;
+    }
+}
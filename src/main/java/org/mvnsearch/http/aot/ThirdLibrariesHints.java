@@ -322,9 +322,24 @@ public class ThirdLibrariesHints implements BeanFactoryNativeConfigurationProces
             registry.reflection().forType(clazz).withAccess(TypeAccess.DECLARED_CONSTRUCTORS)
                     .withAccess(TypeAccess.DECLARED_METHODS).withAccess(TypeAccess.DECLARED_FIELDS).build();
         }
+        //embedded JavaScript host objects
+        final Class<?>[] rhinoArray = {
+                org.mvnsearch.http.vendor.Rhino.Host.class,
+                org.mvnsearch.http.vendor.Rhino.DigestBuilder.class,
+                org.mvnsearch.http.vendor.Rhino.Digest.class
+        };
+        for (Class<?> clazz : rhinoArray) {
+            registry.reflection().forType(clazz).withAccess(TypeAccess.DECLARED_CONSTRUCTORS)
+                    .withAccess(TypeAccess.DECLARED_METHODS).withAccess(TypeAccess.DECLARED_FIELDS).build();
+        }
         //msgpack
         final Class<?>[] msgPackArray = {
-                org.msgpack.jackson.dataformat.MessagePackExtensionType.class
+                org.msgpack.jackson.dataformat.MessagePackExtensionType.class,
+                org.mvnsearch.http.model.HttpFileCache.Entry.class,
+                org.mvnsearch.http.model.HttpFileCache.FileStamp.class,
+                org.mvnsearch.http.model.HttpFileCache.CachedRequest.class,
+                org.mvnsearch.http.protocol.ResponseCache.Entry.class,
+                org.mvnsearch.http.protocol.ResponseCache.Header.class
         };
         for (Class<?> clazz : msgPackArray) {
             registry.reflection().forType(clazz).withAccess(TypeAccess.DECLARED_CONSTRUCTORS)
@@ -0,0 +1,175 @@
+package org.mvnsearch.http.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.mvnsearch.http.utils.JsonUtils;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * rows of data file for data-driven requests: JSON lines(.jsonl, .ndjson) or CSV with header line.
+ * Rows are read lazily, and fields of row are bound as variables.
+ *
+ * @author linux_china
+ */
+public class DataFileRows implements Iterator<Map<String, Object>>, Closeable {
+    private final BufferedReader reader;
+    private final boolean csv;
+    private List<String> csvHeaders;
+    private Map<String, Object> nextRow;
+    private long lineNumber = 0;
+
+    private DataFileRows(BufferedReader reader, boolean csv) {
+        this.reader = reader;
+        this.csv = csv;
+    }
+
+    public static DataFileRows open(Path dataFile) throws IOException {
+        final String fileName = dataFile.getFileName().toString().toLowerCase();
+        return new DataFileRows(Files.newBufferedReader(dataFile, StandardCharsets.UTF_8), fileName.endsWith(".csv"));
+    }
+
+    static DataFileRows of(BufferedReader reader, boolean csv) {
+        return new DataFileRows(reader, csv);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextRow == null) {
+            try {
+                nextRow = csv ? readCsvRow() : readJsonRow();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return nextRow != null;
+    }
+
+    @Override
+    public Map<String, Object> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final Map<String, Object> row = nextRow;
+        nextRow = null;
+        return row;
+    }
+
+    private Map<String, Object> readJsonRow() throws IOException {
+        String line;
+        while ((line = readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            final JsonNode jsonNode = JsonUtils.OBJECT_MAPPER.readTree(line);
+            if (!jsonNode.isObject()) {
+                throw new IOException("JSON object expected at line " + lineNumber);
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            jsonNode.fields().forEachRemaining(entry -> {
+                final JsonNode value = entry.getValue();
+                // nested object and array are bound as JSON text, and null as empty text
+                if (value.isNull()) {
+                    row.put(entry.getKey(), "");
+                } else {
+                    row.put(entry.getKey(), value.isValueNode() ? value.asText() : value.toString());
+                }
+            });
+            return row;
+        }
+        return null;
+    }
+
+    private Map<String, Object> readCsvRow() throws IOException {
+        if (csvHeaders == null) {
+            String headerLine = readLine();
+            if (headerLine == null) {
+                return null;
+            }
+            if (headerLine.startsWith("\uFEFF")) {
+                headerLine = headerLine.substring(1);
+            }
+            csvHeaders = parseCsvRecord(headerLine);
+        }
+        String line;
+        while ((line = readLine()) != null) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            final List<String> values = parseCsvRecord(line);
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < csvHeaders.size(); i++) {
+                row.put(csvHeaders.get(i), i < values.size() ? values.get(i) : "");
+            }
+            return row;
+        }
+        return null;
+    }
+
+    /**
+     * parse CSV record with RFC 4180 quotes, and line breaks in quoted value are read from following lines
+     */
+    private List<String> parseCsvRecord(String line) throws IOException {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        String current = line;
+        int i = 0;
+        while (true) {
+            if (i >= current.length()) {
+                if (quoted) { // quoted value continues in next line
+                    current = readLine();
+                    if (current == null) {
+                        throw new IOException("Unclosed quotation in CSV at line " + lineNumber);
+                    }
+                    value.append('\n');
+                    i = 0;
+                    continue;
+                }
+                break;
+            }
+            final char c = current.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < current.length() && current.charAt(i + 1) == '"') {
+                        value.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+            i++;
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private String readLine() throws IOException {
+        final String line = reader.readLine();
+        if (line != null) {
+            lineNumber++;
+        }
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,146 @@
+package org.mvnsearch.http.load;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * load generator: repeat an iteration with fixed concurrency or fixed rate for a duration.
+ * Run stops at the duration by wall clock, and slots of fixed rate not sent in time are reported as dropped.
+ *
+ * @author linux_china
+ */
+public class LoadGenerator {
+    private final int concurrency;
+    private final int rate;
+    private final Duration duration;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private static final long GRACE_MILLIS = 30_000;
+    private final LongAdder errors = new LongAdder();
+    /**
+     * scheduled slots of fixed rate mode not sent before duration
+     */
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean stopped = false;
+    private long elapsedNanos = 0;
+
+    /**
+     * load generator
+     *
+     * @param concurrency worker count
+     * @param rate        requests per second, 0 means as fast as possible
+     * @param duration    duration
+     */
+    public LoadGenerator(int concurrency, int rate, Duration duration) {
+        this.concurrency = Math.max(concurrency, 1);
+        this.rate = Math.max(rate, 0);
+        this.duration = duration;
+    }
+
+    /**
+     * run iteration until duration reached
+     *
+     * @param iteration iteration, and return false or throw exception for failed request
+     */
+    public void run(Callable<Boolean> iteration) throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        final long startNanos = System.nanoTime();
+        final long deadline = startNanos + duration.toNanos();
+        final long intervalNanos = rate > 0 ? TimeUnit.SECONDS.toNanos(1) / rate : 0;
+        final AtomicLong nextSlot = new AtomicLong(startNanos);
+        final AtomicInteger inFlight = new AtomicInteger();
+        for (int i = 0; i < concurrency; i++) {
+            executor.execute(() -> {
+                while (!stopped) {
+                    long begin;
+                    if (intervalNanos > 0) { // fixed rate: latency from scheduled time to avoid coordinated omission
+                        begin = nextSlot.getAndAdd(intervalNanos);
+                        if (begin >= deadline) {
+                            break;
+                        }
+                        // stale slot after duration: server can't keep up with the rate
+                        if (System.nanoTime() >= deadline) {
+                            dropped.increment();
+                            break;
+                        }
+                        final long waitNanos = begin - System.nanoTime();
+                        if (waitNanos > 0) {
+                            LockSupport.parkNanos(waitNanos);
+                        }
+                    } else {
+                        begin = System.nanoTime();
+                        if (begin >= deadline) {
+                            break;
+                        }
+                    }
+                    inFlight.incrementAndGet();
+                    boolean success;
+                    try {
+                        success = Boolean.TRUE.equals(iteration.call());
+                    } catch (Exception e) {
+                        success = false;
+                    }
+                    inFlight.decrementAndGet();
+                    if (stopped) {
+                        break;
+                    }
+                    histogram.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - begin));
+                    if (!success) {
+                        errors.increment();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(duration.toMillis() + GRACE_MILLIS, TimeUnit.MILLISECONDS)) {
+            // hung iterations are cancelled and counted as errors, then report is stable
+            stopped = true;
+            errors.add(inFlight.get());
+            executor.shutdownNow();
+        }
+        if (intervalNanos > 0) { // slots not taken by workers before duration
+            final long remainingNanos = deadline - nextSlot.get();
+            if (remainingNanos > 0) {
+                dropped.add((remainingNanos + intervalNanos - 1) / intervalNanos);
+            }
+        }
+        elapsedNanos = System.nanoTime() - startNanos;
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public String report() {
+        final long total = histogram.getTotalCount();
+        final double seconds = elapsedNanos / 1_000_000_000.0;
+        final double throughput = seconds > 0 ? total / seconds : 0;
+        return String.format("Requests: %d, Errors: %d, Dropped: %d, Duration: %.2fs, Throughput: %.2f req/s%n", total, getErrors(), getDropped(), seconds, throughput)
+                + String.format("Latency(ms): min=%.2f, mean=%.2f, p50=%.2f, p90=%.2f, p99=%.2f, p999=%.2f, max=%.2f",
+                millis(histogram.getMinValue()),
+                histogram.getMean() / 1000.0,
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
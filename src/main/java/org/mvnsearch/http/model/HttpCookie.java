@@ -3,11 +3,17 @@ package org.mvnsearch.http.model;
 import io.netty.handler.codec.http.cookie.Cookie;
 import io.netty.handler.codec.http.cookie.DefaultCookie;
 
-import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.Date;
+import java.util.Locale;
 
 public class HttpCookie {
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("EEE, dd-MMM-yyyy HH:mm:ss");
+    /**
+     * date format of http-client.cookies in local time zone, and DateTimeFormatter is thread-safe
+     */
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("EEE, dd-MMM-yyyy HH:mm:ss", Locale.US);
     private String domain;
     private String path;
     private String name;
@@ -54,6 +60,20 @@ public class HttpCookie {
         this.expired = expired;
     }
 
+    public boolean isExpired(long now) {
+        return expired.getTime() <= now;
+    }
+
+    /**
+     * path match of RFC 6265: same path, or cookie path is prefix of request path on `/` boundary
+     */
+    public boolean matchesPath(String requestPath) {
+        if (path == null || path.isEmpty() || path.equals("/") || requestPath.equals(path)) {
+            return true;
+        }
+        return requestPath.startsWith(path) && (path.endsWith("/") || requestPath.charAt(path.length()) == '/');
+    }
+
     public Cookie toNettyCookie() {
         return new DefaultCookie(this.name, this.value);
     }
@@ -65,7 +85,15 @@ public class HttpCookie {
         cookie.setPath(parts[1]);
         cookie.setName(parts[2]);
         cookie.setValue(parts[3]);
-        cookie.setExpired(DATE_FORMAT.parse(parts[4]));
+        cookie.setExpired(Date.from(LocalDateTime.parse(parts[4].trim(), DATE_FORMATTER).atZone(ZoneId.systemDefault()).toInstant()));
         return cookie;
     }
+
+    /**
+     * line of http-client.cookies: domain, path, name, value and expired date separated by tab
+     */
+    public String toLine() {
+        final String date = DATE_FORMATTER.format(LocalDateTime.ofInstant(expired.toInstant(), ZoneId.systemDefault()));
+        return String.join("\t", domain, path, name, value, date);
+    }
 }
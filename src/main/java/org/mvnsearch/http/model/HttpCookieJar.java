@@ -0,0 +1,214 @@
+package org.mvnsearch.http.model;
+
+import io.netty.handler.codec.http.cookie.ClientCookieDecoder;
+import io.netty.handler.codec.http.cookie.Cookie;
+import org.mvnsearch.http.logging.HttpxErrorCodeLogger;
+import org.mvnsearch.http.logging.HttpxErrorCodeLoggerFactory;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * process-wide cookie jar of `.idea/httpRequests/http-client.cookies`: cookies are loaded once and indexed by domain,
+ * cookies from `Set-Cookie` are captured, and changed jar is written back to the file atomically at exit.
+ *
+ * @author linux_china
+ */
+public class HttpCookieJar {
+    private static final HttpxErrorCodeLogger log = HttpxErrorCodeLoggerFactory.getLogger(HttpCookieJar.class);
+    private static final String HEADER_LINE = "# domain\tpath\tname\tvalue\tdate";
+    /**
+     * session cookie without Max-Age or Expires is kept for one day, then login flow works across httpx invocations
+     */
+    private static final long SESSION_COOKIE_MILLIS = 24 * 60 * 60 * 1000L;
+    private static volatile HttpCookieJar instance;
+    private final Path cookieFile;
+    /**
+     * domain to cookies with `path name` as key
+     */
+    private final Map<String, Map<String, HttpCookie>> cookies = new ConcurrentHashMap<>();
+    private volatile boolean dirty = false;
+
+    HttpCookieJar(Path cookieFile) {
+        this.cookieFile = cookieFile;
+    }
+
+    public static HttpCookieJar getInstance() {
+        if (instance == null) {
+            synchronized (HttpCookieJar.class) {
+                if (instance == null) {
+                    final HttpCookieJar cookieJar = new HttpCookieJar(cookieFile());
+                    cookieJar.load();
+                    Runtime.getRuntime().addShutdownHook(new Thread(cookieJar::flush));
+                    instance = cookieJar;
+                }
+            }
+        }
+        return instance;
+    }
+
+    private static Path cookieFile() {
+        final String httpFilePath = System.getProperty("http.file");
+        if (httpFilePath != null) {
+            return Path.of(httpFilePath).toAbsolutePath().getParent().resolve(".idea/httpRequests/http-client.cookies");
+        } else {
+            return Path.of(".idea/httpRequests/http-client.cookies").toAbsolutePath();
+        }
+    }
+
+    void load() {
+        if (!Files.exists(cookieFile)) {
+            return;
+        }
+        try {
+            final long now = System.currentTimeMillis();
+            for (String line : Files.readAllLines(cookieFile, StandardCharsets.UTF_8)) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                final HttpCookie cookie = HttpCookie.valueOf(line);
+                if (!cookie.isExpired(now)) {
+                    put(cookie);
+                }
+            }
+        } catch (Exception e) {
+            log.error("HTX-100-600", e);
+        }
+    }
+
+    /**
+     * cookies for the request URI: domain matched by host and its parent domains, path matched and not expired
+     */
+    public List<HttpCookie> cookies(URI uri) {
+        final String host = uri.getHost();
+        if (host == null) {
+            return Collections.emptyList();
+        }
+        final String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        final long now = System.currentTimeMillis();
+        List<HttpCookie> result = new ArrayList<>();
+        String domain = host.toLowerCase();
+        while (true) {
+            final Map<String, HttpCookie> domainCookies = cookies.get(domain);
+            if (domainCookies != null) {
+                for (HttpCookie cookie : domainCookies.values()) {
+                    if (cookie.isExpired(now)) {
+                        domainCookies.remove(cookie.getPath() + " " + cookie.getName());
+                        dirty = true;
+                    } else if (cookie.matchesPath(path)) {
+                        result.add(cookie);
+                    }
+                }
+            }
+            final int offset = domain.indexOf('.');
+            if (offset < 0) {
+                break;
+            }
+            domain = domain.substring(offset + 1);
+        }
+        // longer path first
+        result.sort(Comparator.comparingInt((HttpCookie cookie) -> cookie.getPath().length()).reversed());
+        return result;
+    }
+
+    /**
+     * capture cookies from `Set-Cookie` headers of response, and cookie with Max-Age 0 or past Expires is removed
+     *
+     * @param uri              request URI
+     * @param setCookieHeaders values of `Set-Cookie` headers
+     */
+    public void addSetCookies(URI uri, List<String> setCookieHeaders) {
+        final String host = uri.getHost();
+        if (host == null || setCookieHeaders.isEmpty()) {
+            return;
+        }
+        for (String setCookieHeader : setCookieHeaders) {
+            final Cookie nettyCookie = ClientCookieDecoder.LAX.decode(setCookieHeader);
+            if (nettyCookie == null) {
+                continue;
+            }
+            String domain = host.toLowerCase();
+            if (nettyCookie.domain() != null && !nettyCookie.domain().isEmpty()) {
+                final String cookieDomain = nettyCookie.domain().toLowerCase().replaceFirst("^\\.", "");
+                // cookie for other domain is rejected
+                if (!domain.equals(cookieDomain) && !domain.endsWith("." + cookieDomain)) {
+                    continue;
+                }
+                domain = cookieDomain;
+            }
+            HttpCookie cookie = new HttpCookie();
+            cookie.setDomain(domain);
+            cookie.setPath(nettyCookie.path() != null && nettyCookie.path().startsWith("/") ? nettyCookie.path() : defaultPath(uri));
+            cookie.setName(nettyCookie.name());
+            cookie.setValue(nettyCookie.value());
+            final long maxAge = nettyCookie.maxAge();
+            if (maxAge == Cookie.UNDEFINED_MAX_AGE) {
+                cookie.setExpired(new Date(System.currentTimeMillis() + SESSION_COOKIE_MILLIS));
+            } else if (maxAge <= 0) {
+                remove(cookie);
+                continue;
+            } else {
+                cookie.setExpired(new Date(System.currentTimeMillis() + maxAge * 1000));
+            }
+            put(cookie);
+            dirty = true;
+        }
+    }
+
+    /**
+     * default path of RFC 6265: directory of request path
+     */
+    private static String defaultPath(URI uri) {
+        final String path = uri.getRawPath();
+        if (path == null || !path.startsWith("/")) {
+            return "/";
+        }
+        final int offset = path.lastIndexOf('/');
+        return offset == 0 ? "/" : path.substring(0, offset);
+    }
+
+    private void put(HttpCookie cookie) {
+        cookies.computeIfAbsent(cookie.getDomain().toLowerCase(), key -> new ConcurrentHashMap<>())
+                .put(cookie.getPath() + " " + cookie.getName(), cookie);
+    }
+
+    private void remove(HttpCookie cookie) {
+        final Map<String, HttpCookie> domainCookies = cookies.get(cookie.getDomain());
+        if (domainCookies != null && domainCookies.remove(cookie.getPath() + " " + cookie.getName()) != null) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * write cookies back to file if changed: write to temp file then move, and concurrent runs never read partial file
+     */
+    public synchronized void flush() {
+        if (!dirty) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER_LINE);
+        for (Map<String, HttpCookie> domainCookies : cookies.values()) {
+            for (HttpCookie cookie : domainCookies.values()) {
+                if (!cookie.isExpired(now)) {
+                    lines.add(cookie.toLine());
+                }
+            }
+        }
+        try {
+            Files.createDirectories(cookieFile.getParent());
+            final Path tempFile = Files.createTempFile(cookieFile.getParent(), "http-client", ".tmp");
+            Files.write(tempFile, lines, StandardCharsets.UTF_8);
+            Files.move(tempFile, cookieFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            dirty = false;
+        } catch (Exception e) {
+            log.error("HTX-100-601", cookieFile, e);
+        }
+    }
+}
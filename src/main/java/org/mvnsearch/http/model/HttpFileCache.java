@@ -0,0 +1,152 @@
+package org.mvnsearch.http.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jetbrains.annotations.Nullable;
+import org.msgpack.jackson.dataformat.MessagePackMapper;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * parse cache of http file under ~/.servicex/cache in MessagePack: split requests and environment context,
+ * and the cache is valid only if path, last modified time and size of http file and context files are unchanged.
+ * Cache file is keyed by paths of http file and context files, so runs from different directories don't overwrite each other.
+ * Context is not cached if it contains secrets of http-client.private.env.json.
+ *
+ * @author linux_china
+ */
+public class HttpFileCache {
+    private static final int VERSION = 1;
+    private static final ObjectMapper MSGPACK_MAPPER = new MessagePackMapper();
+    private final Path cacheFile;
+    private final List<Path> sourceFiles;
+
+    /**
+     * @param httpFilePath http file
+     * @param contextFiles files for context: env json, private env json, settings and global variables, and missing files are fine
+     */
+    public HttpFileCache(Path httpFilePath, List<Path> contextFiles) {
+        final Path absolutePath = httpFilePath.toAbsolutePath().normalize();
+        this.sourceFiles = new ArrayList<>();
+        this.sourceFiles.add(absolutePath);
+        for (Path contextFile : contextFiles) {
+            this.sourceFiles.add(contextFile.toAbsolutePath().normalize());
+        }
+        // context files relative to current directory are part of the key
+        final StringBuilder key = new StringBuilder();
+        for (Path sourceFile : sourceFiles) {
+            key.append(sourceFile).append('\n');
+        }
+        this.cacheFile = Path.of(System.getProperty("user.home")).resolve(".servicex").resolve("cache").resolve(sha256(key.toString()) + ".bin");
+    }
+
+    /**
+     * load cache entry
+     *
+     * @return entry, null if cache not found or stale
+     */
+    @Nullable
+    public Entry load() {
+        final File file = cacheFile.toFile();
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            final Entry entry = MSGPACK_MAPPER.readValue(file, Entry.class);
+            if (entry.version() == VERSION && entry.stamps().equals(stamps())) {
+                return entry;
+            }
+        } catch (Exception ignore) {
+            // broken or incompatible cache is rebuilt
+        }
+        return null;
+    }
+
+    /**
+     * save split requests and context, and it should be called before requests parsed
+     *
+     * @param context context, null if it should not be cached
+     */
+    public void save(List<HttpRequest> requests, @Nullable Map<String, Object> context, Map<String, Object> globalVariables) {
+        try {
+            List<CachedRequest> cachedRequests = new ArrayList<>(requests.size());
+            for (HttpRequest request : requests) {
+                cachedRequests.add(new CachedRequest(request.getIndex(), request.getName().equals(request.getIndex().toString()) ? null : request.getName(),
+                        request.getComment(), request.getTags(), request.getMethod().getName(), request.getRequestLine(),
+                        request.getFirstLineNumber(), request.getLastLineNumber(),
+                        request.getPreScriptStart(), request.getRequestCodeStart(), request.getRequestCodeEnd()));
+            }
+            final Entry entry = new Entry(VERSION, stamps(), cachedRequests, context, globalVariables);
+            Files.createDirectories(cacheFile.getParent());
+            // write to temp file then move, and concurrent runs never read partial cache
+            final Path tempFile = Files.createTempFile(cacheFile.getParent(), "httpx", ".tmp");
+            Files.write(tempFile, MSGPACK_MAPPER.writeValueAsBytes(entry));
+            Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception ignore) {
+            // cache is optional
+        }
+    }
+
+    private List<FileStamp> stamps() {
+        List<FileStamp> stamps = new ArrayList<>(sourceFiles.size());
+        for (Path sourceFile : sourceFiles) {
+            final File file = sourceFile.toFile();
+            if (file.exists()) {
+                stamps.add(new FileStamp(sourceFile.toString(), file.lastModified(), file.length()));
+            } else {
+                stamps.add(new FileStamp(sourceFile.toString(), 0, -1));
+            }
+        }
+        return stamps;
+    }
+
+    private static String sha256(String text) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            return Integer.toHexString(text.hashCode());
+        }
+    }
+
+    public record FileStamp(String path, long lastModified, long size) {
+    }
+
+    public record CachedRequest(int index, @Nullable String name, @Nullable String comment, @Nullable List<String> tags,
+                                String method, String requestLine, int firstLineNumber, int lastLineNumber,
+                                int preScriptStart, int requestCodeStart, int requestCodeEnd) {
+    }
+
+    public record Entry(int version, List<FileStamp> stamps, List<CachedRequest> requests,
+                        @Nullable Map<String, Object> context, Map<String, Object> globalVariables) {
+
+        /**
+         * restore requests with http file code, and the code should be same as the cached one
+         */
+        public List<HttpRequest> toRequests(String httpFileCode) {
+            List<HttpRequest> httpRequests = new ArrayList<>(requests.size());
+            for (CachedRequest cachedRequest : requests) {
+                final HttpRequest httpRequest = new HttpRequest(cachedRequest.index());
+                httpRequest.setName(cachedRequest.name());
+                httpRequest.setComment(cachedRequest.comment());
+                if (cachedRequest.tags() != null) {
+                    httpRequest.setTags(new ArrayList<>(cachedRequest.tags()));
+                }
+                httpRequest.setMethod(HttpMethod.valueOf(cachedRequest.method()));
+                httpRequest.setRequestLine(cachedRequest.requestLine());
+                httpRequest.restoreSource(httpFileCode, cachedRequest.preScriptStart(), cachedRequest.requestCodeStart(),
+                        cachedRequest.requestCodeEnd(), cachedRequest.firstLineNumber(), cachedRequest.lastLineNumber());
+                httpRequests.add(httpRequest);
+            }
+            return httpRequests;
+        }
+    }
+}
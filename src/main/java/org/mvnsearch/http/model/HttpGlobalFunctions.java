@@ -13,61 +13,87 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
 
+/**
+ * global functions for `{{$function}}`: functions are stateless or backed by thread-safe caches,
+ * then they are safe for parallel and load modes.
+ */
 public class HttpGlobalFunctions {
-    private static HttpGlobalFunctions INSTANCE = null;
-    private static Date NOW = null;
-
+    private static final HttpGlobalFunctions INSTANCE = new HttpGlobalFunctions();
+    private static final RgxGen EMAIL_GENERATOR = new RgxGen("[a-z][a-z1-9]{8}@example\\.com");
+    private static final RgxGen ALPHABETIC_GENERATOR = new RgxGen("[a-zA-Z]{8}");
+    private static final RgxGen ALPHANUMERIC_GENERATOR = new RgxGen("[a-zA-Z0-9]{8}");
+    private static final RgxGen HEXADECIMAL_GENERATOR = new RgxGen("[A-F0-9]{8}");
+    /**
+     * date time formatters with `zoneId|locale|pattern` as key
+     */
+    private static final Map<String, DateTimeFormatter> DATE_TIME_FORMATTERS = new ConcurrentHashMap<>();
+    /**
+     * SimpleDateFormat of custom patterns per thread with `zoneId|pattern` as key, because SimpleDateFormat is not thread-safe
+     */
+    private static final ThreadLocal<Map<String, DateFormat>> DATE_FORMATS = ThreadLocal.withInitial(HashMap::new);
+    private static final ThreadLocal<Long> FROZEN_CLOCK = new ThreadLocal<>();
 
     public static HttpGlobalFunctions getInstance() {
-        if (INSTANCE == null) {
-            INSTANCE = new HttpGlobalFunctions();
-        }
         return INSTANCE;
     }
 
-    private final static Map<String, Function<String[], String>> FUNCTIONS = new HashMap<>();
+    private final Map<String, Function<String[], String>> functions = new ConcurrentHashMap<>();
 
     private HttpGlobalFunctions() {
-        FUNCTIONS.put("random.alphabetic", HttpGlobalFunctions::randomAlphabetic); // jetbrains
-        FUNCTIONS.put("random.alphanumeric", HttpGlobalFunctions::randomAlphanumeric); // jetbrains
-        FUNCTIONS.put("random.email", HttpGlobalFunctions::randomEmail); // jetbrains
-        FUNCTIONS.put("random.float", HttpGlobalFunctions::randomFloat); // jetbrains
-        FUNCTIONS.put("random.hexadecimal", HttpGlobalFunctions::randomHexadecimal); // jetbrains
-        FUNCTIONS.put("random.integer", HttpGlobalFunctions::randomInt); // jetbrains
-        FUNCTIONS.put("random.uuid", HttpGlobalFunctions::uuid); // jetbrains
-        FUNCTIONS.put("uuid", HttpGlobalFunctions::uuid); // jetbrains
-        FUNCTIONS.put("guid", HttpGlobalFunctions::uuid);
-        FUNCTIONS.put("randomInt", HttpGlobalFunctions::randomInt); // jetbrains
-        FUNCTIONS.put("timestamp", HttpGlobalFunctions::timestamp); // jetbrains
-        FUNCTIONS.put("datetime", HttpGlobalFunctions::datetime);
-        FUNCTIONS.put("localDatetime", HttpGlobalFunctions::localDatetime);
-        FUNCTIONS.put("dotenv", HttpGlobalFunctions::dotenv);
-        FUNCTIONS.put("processEnv", HttpGlobalFunctions::processEnv);
-        FUNCTIONS.put("base64", HttpGlobalFunctions::base64);
-        FUNCTIONS.put("urlEncode", HttpGlobalFunctions::urlEncode);
-        FUNCTIONS.put("escapeHtml", HttpGlobalFunctions::escapeHtml);
-        FUNCTIONS.put("escapeXml", HttpGlobalFunctions::escapeXml);
-        FUNCTIONS.put("escapeJson", HttpGlobalFunctions::escapeJson);
-        FUNCTIONS.put("escapeJavaScript", HttpGlobalFunctions::escapeJavaScript);
-        FUNCTIONS.put("hmacMD5", HttpGlobalFunctions::hmacMD5);
-        FUNCTIONS.put("hmacSHA1", HttpGlobalFunctions::hmacSHA1);
-        FUNCTIONS.put("hmacSHA256", HttpGlobalFunctions::hmacSHA256);
-        FUNCTIONS.put("hmacSHA512", HttpGlobalFunctions::hmacSHA512);
-        FUNCTIONS.put("md5", HttpGlobalFunctions::md5);
-        FUNCTIONS.put("sha1", HttpGlobalFunctions::sha1);
-        FUNCTIONS.put("sha256", HttpGlobalFunctions::sha256);
-        FUNCTIONS.put("sha512", HttpGlobalFunctions::sha512);
-        FUNCTIONS.put("projectRoot", HttpGlobalFunctions::projectRoot);
-        FUNCTIONS.put("historyFolder", HttpGlobalFunctions::historyFolder);
-        NOW = new Date();
+        functions.put("random.alphabetic", HttpGlobalFunctions::randomAlphabetic); // jetbrains
+        functions.put("random.alphanumeric", HttpGlobalFunctions::randomAlphanumeric); // jetbrains
+        functions.put("random.email", HttpGlobalFunctions::randomEmail); // jetbrains
+        functions.put("random.float", HttpGlobalFunctions::randomFloat); // jetbrains
+        functions.put("random.hexadecimal", HttpGlobalFunctions::randomHexadecimal); // jetbrains
+        functions.put("random.integer", HttpGlobalFunctions::randomInt); // jetbrains
+        functions.put("random.uuid", HttpGlobalFunctions::uuid); // jetbrains
+        functions.put("uuid", HttpGlobalFunctions::uuid); // jetbrains
+        functions.put("guid", HttpGlobalFunctions::uuid);
+        functions.put("randomInt", HttpGlobalFunctions::randomInt); // jetbrains
+        functions.put("timestamp", HttpGlobalFunctions::timestamp); // jetbrains
+        functions.put("datetime", HttpGlobalFunctions::datetime);
+        functions.put("localDatetime", HttpGlobalFunctions::localDatetime);
+        functions.put("dotenv", HttpGlobalFunctions::dotenv);
+        functions.put("processEnv", HttpGlobalFunctions::processEnv);
+        functions.put("base64", HttpGlobalFunctions::base64);
+        functions.put("urlEncode", HttpGlobalFunctions::urlEncode);
+        functions.put("escapeHtml", HttpGlobalFunctions::escapeHtml);
+        functions.put("escapeXml", HttpGlobalFunctions::escapeXml);
+        functions.put("escapeJson", HttpGlobalFunctions::escapeJson);
+        functions.put("escapeJavaScript", HttpGlobalFunctions::escapeJavaScript);
+        functions.put("hmacMD5", HttpGlobalFunctions::hmacMD5);
+        functions.put("hmacSHA1", HttpGlobalFunctions::hmacSHA1);
+        functions.put("hmacSHA256", HttpGlobalFunctions::hmacSHA256);
+        functions.put("hmacSHA512", HttpGlobalFunctions::hmacSHA512);
+        functions.put("md5", HttpGlobalFunctions::md5);
+        functions.put("sha1", HttpGlobalFunctions::sha1);
+        functions.put("sha256", HttpGlobalFunctions::sha256);
+        functions.put("sha512", HttpGlobalFunctions::sha512);
+        functions.put("projectRoot", HttpGlobalFunctions::projectRoot);
+        functions.put("historyFolder", HttpGlobalFunctions::historyFolder);
     }
 
     @Nullable
     public Function<String[], String> findFunction(String name) {
-        return FUNCTIONS.get(name);
+        return functions.get(name);
+    }
+
+    /**
+     * register custom function, and built-in function with same name is replaced
+     *
+     * @param name     function name without `$`
+     * @param function function with evaluated arguments, and it should be thread-safe
+     */
+    public void registerFunction(String name, Function<String[], String> function) {
+        functions.put(name, function);
     }
 
     public static String uuid(String[] args) {
@@ -84,31 +110,31 @@ public class HttpGlobalFunctions {
         if (args.length > 1) {
             max = Integer.parseInt(args[1]);
         }
-        return String.valueOf(new Random().nextInt(min, max));
+        return String.valueOf(ThreadLocalRandom.current().nextInt(min, max));
     }
 
     public static String randomFloat(String[] args) {
-        return String.valueOf(new Random().nextFloat());
+        return String.valueOf(ThreadLocalRandom.current().nextFloat());
     }
 
     public static String randomEmail(String[] args) {
-        return new RgxGen("[a-z][a-z1-9]{8}@example\\.com").generate();
+        return EMAIL_GENERATOR.generate(ThreadLocalRandom.current());
     }
 
     public static String randomAlphabetic(String[] args) {
-        return new RgxGen("[a-zA-Z]{8}").generate();
+        return ALPHABETIC_GENERATOR.generate(ThreadLocalRandom.current());
     }
 
     public static String randomAlphanumeric(String[] args) {
-        return new RgxGen("[a-zA-Z0-9]{8}").generate();
+        return ALPHANUMERIC_GENERATOR.generate(ThreadLocalRandom.current());
     }
 
     public static String randomHexadecimal(String[] args) {
-        return new RgxGen("[A-F0-9]{8}").generate();
+        return HEXADECIMAL_GENERATOR.generate(ThreadLocalRandom.current());
     }
 
     public static String timestamp(String[] args) {
-        long timestamp = NOW.getTime();
+        long timestamp = now();
         if (args != null && args.length == 2) {
             long offset = Long.parseLong(args[0]);
             // s, m, h, d
@@ -126,32 +152,58 @@ public class HttpGlobalFunctions {
     }
 
     public static String datetime(String[] args) {
-        return formatDateTime(args, TimeZone.getTimeZone("UTC"));
+        // zone id `UTC` instead of offset, then zone name is `UTC` not `Z` for rfc1123
+        return formatDateTime(args, ZoneId.of("UTC"));
     }
 
     public static String localDatetime(String[] args) {
-        return formatDateTime(args, TimeZone.getDefault());
+        return formatDateTime(args, ZoneId.systemDefault());
     }
 
-    public static String formatDateTime(String[] args, TimeZone timeZone) {
+    public static String formatDateTime(String[] args, ZoneId zoneId) {
         String pattern = "yyyy-MM-dd'T'HH:mm'Z'";
+        Locale locale = Locale.getDefault();
         if (args.length > 0) {
             String patternArg = args[0];
             if (Objects.equals(patternArg, "rfc1123")) {
                 pattern = "EEE, dd MMM yyyy HH:mm:ss z";
+                locale = Locale.US; // English day and month names
             } else if (Objects.equals(patternArg, "iso8601")) {
                 pattern = "yyyy-MM-dd'T'HH:mm:ssZ";
-            } else if (patternArg.startsWith("\"") || patternArg.startsWith("'")) {
-                pattern = patternArg.substring(1, patternArg.length() - 1);
             } else {
-                pattern = patternArg;
+                // custom pattern keeps SimpleDateFormat semantics, and letters such as `u` differ in DateTimeFormatter
+                final String customPattern = patternArg.startsWith("\"") || patternArg.startsWith("'") ? patternArg.substring(1, patternArg.length() - 1) : patternArg;
+                final DateFormat dateFormat = DATE_FORMATS.get().computeIfAbsent(zoneId.getId() + "|" + customPattern, key -> {
+                    final SimpleDateFormat simpleDateFormat = new SimpleDateFormat(customPattern);
+                    simpleDateFormat.setTimeZone(TimeZone.getTimeZone(zoneId));
+                    return simpleDateFormat;
+                });
+                return dateFormat.format(new Date(now()));
             }
         }
-        DateFormat df = new SimpleDateFormat(pattern); // Quoted "Z" to indicate UTC, no timezone offset
-        df.setTimeZone(timeZone);
-        return df.format(NOW);
+        final String formatPattern = pattern;
+        final Locale formatLocale = locale;
+        final DateTimeFormatter formatter = DATE_TIME_FORMATTERS.computeIfAbsent(zoneId.getId() + "|" + locale + "|" + pattern,
+                key -> DateTimeFormatter.ofPattern(formatPattern, formatLocale).withZone(zoneId));
+        return formatter.format(Instant.ofEpochMilli(now()));
     }
 
+    /**
+     * freeze clock for functions in current thread while request is rendered, then `{{$timestamp}}` and `{{$datetime}}`
+     * in one request are same, and {@link #unfreezeClock()} should be called after render
+     */
+    public static void freezeClock() {
+        FROZEN_CLOCK.set(System.currentTimeMillis());
+    }
+
+    public static void unfreezeClock() {
+        FROZEN_CLOCK.remove();
+    }
+
+    private static long now() {
+        final Long frozenClock = FROZEN_CLOCK.get();
+        return frozenClock != null ? frozenClock : System.currentTimeMillis();
+    }
 
     public static String processEnv(String[] args) {
         if (args.length > 0) {
@@ -163,13 +215,9 @@ public class HttpGlobalFunctions {
     public static String dotenv(String[] args) {
         if (args.length > 0) {
             String name = args[0].toUpperCase();
-            try {
-                Dotenv dotenv = Dotenv.load();
-                if (dotenv != null) {
-                    return dotenv.get(name);
-                }
-            } catch (Exception ignore) {
-
+            final Dotenv dotenv = DotenvHolder.DOTENV;
+            if (dotenv != null) {
+                return dotenv.get(name);
             }
         }
         return "";
@@ -319,4 +367,19 @@ public class HttpGlobalFunctions {
         return ".idea/httpRequests/";
     }
 
+    /**
+     * .env is loaded once on first `$dotenv`
+     */
+    private static final class DotenvHolder {
+        private static final Dotenv DOTENV = loadDotenv();
+
+        @Nullable
+        private static Dotenv loadDotenv() {
+            try {
+                return Dotenv.load();
+            } catch (Exception ignore) {
+                return null;
+            }
+        }
+    }
 }
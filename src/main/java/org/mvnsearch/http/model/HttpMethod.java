@@ -1,6 +1,9 @@
 package org.mvnsearch.http.model;
 
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @SuppressWarnings("unused")
 public class HttpMethod {
@@ -29,6 +32,15 @@ public class HttpMethod {
     public static final List<String> SSH_METHODS = List.of("SSH");
     public static final List<String> WEBSOCKET_METHODS = List.of("WEBSOCKET");
     public static final List<String> CHATGPT_METHODS = List.of("CHATGPT");
+    /**
+     * all method names for O(1) request line check
+     */
+    private static final Set<String> ALL_METHODS = Stream.of(HTTP_METHODS, REST_METHODS, RSOCKET_METHODS, GRPC_METHODS, GRAPHQL_METHODS,
+                    DUBBO_METHODS, SOFA_METHODS, TARPC_METHODS, MSGPACK_METHODS, NVIM_METHODS, JSONRPC_METHODS, TRPC_METHODS,
+                    THRIFT_METHODS, ZEROMQ_METHODS, MAIL_METHODS, ALIYUN_METHODS, MEMCACHE_METHODS, AWS_METHODS, PUB_METHODS,
+                    SUB_METHODS, REDIS_METHODS, SSH_METHODS, WEBSOCKET_METHODS, CHATGPT_METHODS)
+            .flatMap(List::stream)
+            .collect(Collectors.toUnmodifiableSet());
     private String name;
 
     public HttpMethod() {
@@ -54,30 +66,7 @@ public class HttpMethod {
         } else {
             method = line.substring(0, offset);
         }
-        return HTTP_METHODS.contains(method)
-                || REST_METHODS.contains(method)
-                || RSOCKET_METHODS.contains(method)
-                || GRPC_METHODS.contains(method)
-                || GRAPHQL_METHODS.contains(method)
-                || DUBBO_METHODS.contains(method)
-                || THRIFT_METHODS.contains(method)
-                || ALIYUN_METHODS.contains(method)
-                || AWS_METHODS.contains(method)
-                || ZEROMQ_METHODS.contains(method)
-                || SOFA_METHODS.contains(method)
-                || TARPC_METHODS.contains(method)
-                || JSONRPC_METHODS.contains(method)
-                || TRPC_METHODS.contains(method)
-                || MSGPACK_METHODS.contains(method)
-                || NVIM_METHODS.contains(method)
-                || MAIL_METHODS.contains(method)
-                || PUB_METHODS.contains(method)
-                || SUB_METHODS.contains(method)
-                || REDIS_METHODS.contains(method)
-                || SSH_METHODS.contains(method)
-                || WEBSOCKET_METHODS.contains(method)
-                || CHATGPT_METHODS.contains(method)
-                || MEMCACHE_METHODS.contains(method);
+        return ALL_METHODS.contains(method);
     }
 
     public static HttpMethod valueOf(String methodName) {
@@ -6,10 +6,14 @@ import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.mvnsearch.http.model.extension.HttpxExtensionRequest;
+import org.mvnsearch.http.vendor.JavaScriptEngine;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -26,13 +30,49 @@ public class HttpRequest {
     private boolean bodyStarted = false;
     private List<String> bodyLines;
     private List<String> preScriptLines;
-    private final List<Integer> lineNumbers = new ArrayList<>();
+    /**
+     * lines of request in http file are continuous, and only the range is kept
+     */
+    private int firstLineNumber = 0;
+    private int lastLineNumber = 0;
     private byte[] body;
+    /**
+     * body file from `< file` or `-d @file`, and it's streamed by HTTP executor without loading into memory
+     */
+    @Nullable
+    private Path bodyFile;
     private String preScriptCode;
     private String jsTestCode;
     private String redirectResponse;
     private HttpRequestTarget requestTarget;
     private final List<String> requestLines = new ArrayList<>();
+    /**
+     * lazy source: pre-script lines and request lines are kept as offsets of http file code, and split on first access
+     */
+    private String httpFileCode;
+    private int preScriptStart = -1;
+    private int requestCodeStart = -1;
+    private int requestCodeEnd = -1;
+    /**
+     * response status code filled by http executors
+     */
+    private Integer responseStatus;
+    private Map<String, String> responseHeaders;
+    private HttpTimings timings;
+    private long responseBytes = -1;
+    /**
+     * redirect of `>> file` handled by executor, even if the file is rejected
+     */
+    private boolean responseRedirected = false;
+    /**
+     * error of HTTP based executors if no response received, such as connection refused or request rejected before sent
+     */
+    private String responseError;
+    /**
+     * response body is read into memory without streaming or `>> file` redirect in executor, such as dependency of other requests
+     */
+    private boolean bufferedResponse = false;
+    private List<JavaScriptEngine.TestCase> testCases;
 
     public HttpRequest() {
     }
@@ -61,8 +101,102 @@ public class HttpRequest {
         requestLines.add(line);
     }
 
+    public List<String> getRequestLines() {
+        splitSourceLines();
+        return requestLines;
+    }
+
     public String getRequestCode() {
-        return StringUtils.join(requestLines, "\n");
+        return StringUtils.join(getRequestLines(), "\n");
+    }
+
+    public void setSource(String httpFileCode) {
+        this.httpFileCode = httpFileCode;
+    }
+
+    /**
+     * mark line as pre-script line in source
+     *
+     * @param lineStart start offset of line
+     */
+    public void markPreScriptLine(int lineStart) {
+        if (this.preScriptStart < 0) {
+            this.preScriptStart = lineStart;
+        }
+    }
+
+    /**
+     * mark line as request line in source, and the first one is request line
+     *
+     * @param lineStart start offset of line
+     * @param lineEnd   end offset of line, exclusive
+     */
+    public void markRequestLine(int lineStart, int lineEnd) {
+        if (this.requestCodeStart < 0) {
+            this.requestCodeStart = lineStart;
+        }
+        this.requestCodeEnd = lineEnd;
+    }
+
+    int getPreScriptStart() {
+        return preScriptStart;
+    }
+
+    int getRequestCodeStart() {
+        return requestCodeStart;
+    }
+
+    int getRequestCodeEnd() {
+        return requestCodeEnd;
+    }
+
+    /**
+     * restore lazy source offsets and line range, used by parse cache
+     */
+    void restoreSource(String httpFileCode, int preScriptStart, int requestCodeStart, int requestCodeEnd, int firstLineNumber, int lastLineNumber) {
+        this.httpFileCode = httpFileCode;
+        this.preScriptStart = preScriptStart;
+        this.requestCodeStart = requestCodeStart;
+        this.requestCodeEnd = requestCodeEnd;
+        this.firstLineNumber = firstLineNumber;
+        this.lastLineNumber = lastLineNumber;
+    }
+
+    /**
+     * split pre-script lines and request lines from source, and comment lines before request line are skipped
+     */
+    private void splitSourceLines() {
+        if (this.httpFileCode == null) {
+            return;
+        }
+        final String code = this.httpFileCode;
+        this.httpFileCode = null;
+        if (preScriptStart >= 0) {
+            final int preScriptEnd = requestCodeStart >= 0 ? requestCodeStart : code.length();
+            for (String rawLine : splitLines(code, preScriptStart, preScriptEnd)) {
+                String line = rawLine.trim();
+                if (!line.isEmpty() && !line.startsWith("#") && !line.startsWith("//")) {
+                    addPreScriptLine(line);
+                }
+            }
+        }
+        if (requestCodeStart >= 0) {
+            requestLines.addAll(splitLines(code, requestCodeStart, requestCodeEnd));
+        }
+    }
+
+    private static List<String> splitLines(String code, int start, int end) {
+        List<String> lines = new ArrayList<>();
+        int lineStart = start;
+        while (true) {
+            int lineEnd = code.indexOf('\n', lineStart);
+            if (lineEnd < 0 || lineEnd >= end) {
+                lines.add(code.substring(lineStart, end));
+                return lines;
+            }
+            lines.add(code.substring(lineStart, lineEnd > lineStart && code.charAt(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd));
+            lineStart = lineEnd + 1;
+        }
     }
 
     public String getComment() {
@@ -220,11 +354,22 @@ public class HttpRequest {
     }
 
     public void addLineNumber(int lineNumber) {
-        this.lineNumbers.add(lineNumber);
+        if (this.firstLineNumber == 0) {
+            this.firstLineNumber = lineNumber;
+        }
+        this.lastLineNumber = lineNumber;
     }
 
     public boolean containsLineNumber(int lineNumber) {
-        return this.lineNumbers.contains(lineNumber);
+        return lineNumber >= this.firstLineNumber && lineNumber <= this.lastLineNumber;
+    }
+
+    public int getFirstLineNumber() {
+        return firstLineNumber;
+    }
+
+    public int getLastLineNumber() {
+        return lastLineNumber;
     }
 
     public void setBodyLines(List<String> bodyLines) {
@@ -246,6 +391,7 @@ public class HttpRequest {
     }
 
     public List<String> getPreScriptLines() {
+        splitSourceLines();
         return preScriptLines;
     }
 
@@ -267,12 +413,53 @@ public class HttpRequest {
         return preScriptCode;
     }
 
+    /**
+     * body bytes, and body file is loaded into memory on first call
+     */
     public byte[] getBodyBytes() {
+        if (this.body == null && this.bodyFile != null) {
+            try {
+                this.body = Files.readAllBytes(this.bodyFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
         return this.body != null ? this.body : new byte[]{};
     }
 
+    @Nullable
+    public Path getBodyFile() {
+        return bodyFile;
+    }
+
+    /**
+     * set body file, and file content is read on demand
+     */
+    public void setBodyFile(Path bodyFile) throws IOException {
+        if (!Files.isReadable(bodyFile)) {
+            throw new NoSuchFileException(bodyFile.toString());
+        }
+        this.bodyFile = bodyFile;
+        this.body = null;
+    }
+
+    /**
+     * body size without loading body file
+     */
+    public long getBodySize() {
+        if (this.body == null && this.bodyFile != null) {
+            try {
+                return Files.size(this.bodyFile);
+            } catch (IOException e) {
+                return 0;
+            }
+        }
+        return this.body != null ? this.body.length : 0;
+    }
+
     public String bodyText() {
-        return this.body != null ? new String(this.body, StandardCharsets.UTF_8) : "";
+        final byte[] bodyBytes = getBodyBytes();
+        return bodyBytes.length > 0 ? new String(bodyBytes, StandardCharsets.UTF_8) : "";
     }
 
     public boolean containsArgsHeader() {
@@ -365,6 +552,7 @@ public class HttpRequest {
 
     public void setBodyBytes(byte[] body) {
         this.body = body;
+        this.bodyFile = null;
     }
 
     @Nullable
@@ -440,9 +628,9 @@ public class HttpRequest {
                 String firstLine = bodyLines.get(0);
                 String fileName = firstLine.substring(2).trim();
                 if (httpFilePath == null || fileName.startsWith("/") || fileName.contains(":\\")) { //absolute path
-                    this.body = Files.readAllBytes(Path.of(fileName));
+                    setBodyFile(Path.of(fileName));
                 } else {
-                    this.body = Files.readAllBytes(httpFilePath.resolve(fileName));
+                    setBodyFile(httpFilePath.resolve(fileName));
                 }
                 bodyFromExternal = true;
                 offset = 1;
@@ -529,6 +717,112 @@ public class HttpRequest {
                 || Objects.equals(targetName, this.index.toString());
     }
 
+    @Nullable
+    public Integer getResponseStatus() {
+        return responseStatus;
+    }
+
+    public void setResponseStatus(Integer responseStatus) {
+        this.responseStatus = responseStatus;
+    }
+
+    public boolean isBufferedResponse() {
+        return bufferedResponse;
+    }
+
+    public void setBufferedResponse(boolean bufferedResponse) {
+        this.bufferedResponse = bufferedResponse;
+    }
+
+    @Nullable
+    public String getResponseError() {
+        return responseError;
+    }
+
+    public void setResponseError(String responseError) {
+        this.responseError = responseError;
+    }
+
+    /**
+     * no response error recorded by executor, and response status under 400 if present
+     */
+    public boolean isResponseSuccessful() {
+        return responseError == null && (responseStatus == null || responseStatus < 400);
+    }
+
+    @Nullable
+    public Map<String, String> getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    public void setResponseHeaders(Map<String, String> responseHeaders) {
+        this.responseHeaders = responseHeaders;
+    }
+
+    @Nullable
+    public HttpTimings getTimings() {
+        return timings;
+    }
+
+    public void setTimings(HttpTimings timings) {
+        this.timings = timings;
+    }
+
+    /**
+     * size of response body, -1 if unknown
+     */
+    public long getResponseBytes() {
+        return responseBytes;
+    }
+
+    public void setResponseBytes(long responseBytes) {
+        this.responseBytes = responseBytes;
+    }
+
+    public boolean isResponseRedirected() {
+        return responseRedirected;
+    }
+
+    public void setResponseRedirected(boolean responseRedirected) {
+        this.responseRedirected = responseRedirected;
+    }
+
+    @Nullable
+    public List<JavaScriptEngine.TestCase> getTestCases() {
+        return testCases;
+    }
+
+    public void setTestCases(List<JavaScriptEngine.TestCase> testCases) {
+        this.testCases = testCases;
+    }
+
+    /**
+     * copy parsed request for repeated execution, because executors may change method, headers or body
+     */
+    public HttpRequest copy() {
+        splitSourceLines();
+        HttpRequest copy = new HttpRequest(this.index);
+        copy.name = this.name;
+        copy.comment = this.comment;
+        copy.tags = this.tags == null ? null : new ArrayList<>(this.tags);
+        copy.method = this.method;
+        copy.requestLine = this.requestLine;
+        copy.headers = this.headers == null ? null : new ArrayList<>(this.headers);
+        copy.bodyStarted = this.bodyStarted;
+        copy.bodyLines = this.bodyLines == null ? null : new ArrayList<>(this.bodyLines);
+        copy.preScriptLines = this.preScriptLines == null ? null : new ArrayList<>(this.preScriptLines);
+        copy.firstLineNumber = this.firstLineNumber;
+        copy.lastLineNumber = this.lastLineNumber;
+        copy.body = this.body;
+        copy.bodyFile = this.bodyFile;
+        copy.preScriptCode = this.preScriptCode;
+        copy.jsTestCode = this.jsTestCode;
+        copy.redirectResponse = this.redirectResponse;
+        copy.requestTarget = this.requestTarget;
+        copy.requestLines.addAll(this.requestLines);
+        return copy;
+    }
+
     public HttpxExtensionRequest convertToHttpxRequest() {
         HttpxExtensionRequest request = new HttpxExtensionRequest();
         request.setMethod(this.method.getName());
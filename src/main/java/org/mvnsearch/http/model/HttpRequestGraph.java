@@ -0,0 +1,194 @@
+package org.mvnsearch.http.model;
+
+import org.jetbrains.annotations.Nullable;
+import org.mvnsearch.http.utils.JsonPathUtils;
+import org.mvnsearch.http.utils.JsonUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * dependency graph of requests: a request references response of named request by
+ * `{{login.response.body.$.token}}`, `{{login.response.headers.Location}}` or `{{login.response.status}}`,
+ * then the named request is executed before it and the value is passed as variable in process.
+ *
+ * @author linux_china
+ */
+public class HttpRequestGraph {
+    private static final Pattern RESPONSE_REFERENCE = Pattern.compile("\\{\\{\\s*(([\\w\\-]+)\\.response\\.(body|headers|status)[^}]*?)\\s*}}");
+    /**
+     * requests in topological order: dependencies before dependents
+     */
+    private final List<HttpRequest> requests;
+    private final Map<HttpRequest, List<HttpRequest>> dependencies;
+    /**
+     * response reference expressions of request, and they are extracted after the request executed
+     */
+    private final Map<HttpRequest, Set<String>> expressions;
+
+    private HttpRequestGraph(List<HttpRequest> requests, Map<HttpRequest, List<HttpRequest>> dependencies, Map<HttpRequest, Set<String>> expressions) {
+        this.requests = requests;
+        this.dependencies = dependencies;
+        this.expressions = expressions;
+    }
+
+    /**
+     * build graph for targets, and referenced requests not in targets are added
+     *
+     * @param targets      target requests
+     * @param requestIndex index of all requests in http file
+     * @return graph
+     * @throws IllegalArgumentException referenced request not found or cyclic dependencies
+     */
+    public static HttpRequestGraph build(List<HttpRequest> targets, HttpRequestIndex requestIndex) {
+        Map<HttpRequest, List<HttpRequest>> dependencies = new LinkedHashMap<>();
+        Map<HttpRequest, Set<String>> expressions = new HashMap<>();
+        Deque<HttpRequest> pending = new ArrayDeque<>(targets);
+        while (!pending.isEmpty()) {
+            final HttpRequest request = pending.poll();
+            if (dependencies.containsKey(request)) {
+                continue;
+            }
+            List<HttpRequest> requestDependencies = new ArrayList<>();
+            for (String line : request.getRequestLines()) {
+                if (!line.contains(".response.")) {
+                    continue;
+                }
+                final Matcher matcher = RESPONSE_REFERENCE.matcher(line);
+                while (matcher.find()) {
+                    final String name = matcher.group(2);
+                    final List<HttpRequest> found = requestIndex.find(name);
+                    if (found.isEmpty()) {
+                        throw new IllegalArgumentException("Request not found for reference: " + matcher.group(1));
+                    }
+                    final HttpRequest dependency = found.get(0);
+                    if (dependency == request) {
+                        throw new IllegalArgumentException("Request references itself: " + matcher.group(1));
+                    }
+                    expressions.computeIfAbsent(dependency, key -> new LinkedHashSet<>()).add(matcher.group(1));
+                    if (!requestDependencies.contains(dependency)) {
+                        requestDependencies.add(dependency);
+                        pending.add(dependency);
+                    }
+                }
+            }
+            dependencies.put(request, requestDependencies);
+        }
+        return new HttpRequestGraph(sort(dependencies), dependencies, expressions);
+    }
+
+    /**
+     * topological sort by Kahn's algorithm, and file order is kept for independent requests
+     */
+    private static List<HttpRequest> sort(Map<HttpRequest, List<HttpRequest>> dependencies) {
+        Map<HttpRequest, Integer> inDegrees = new HashMap<>();
+        Map<HttpRequest, List<HttpRequest>> dependents = new HashMap<>();
+        for (Map.Entry<HttpRequest, List<HttpRequest>> entry : dependencies.entrySet()) {
+            inDegrees.put(entry.getKey(), entry.getValue().size());
+            for (HttpRequest dependency : entry.getValue()) {
+                dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(entry.getKey());
+            }
+        }
+        PriorityQueue<HttpRequest> ready = new PriorityQueue<>(Comparator.comparing(HttpRequest::getIndex));
+        inDegrees.forEach((request, inDegree) -> {
+            if (inDegree == 0) {
+                ready.add(request);
+            }
+        });
+        List<HttpRequest> sorted = new ArrayList<>(dependencies.size());
+        while (!ready.isEmpty()) {
+            final HttpRequest request = ready.poll();
+            sorted.add(request);
+            for (HttpRequest dependent : dependents.getOrDefault(request, List.of())) {
+                if (inDegrees.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        if (sorted.size() < dependencies.size()) {
+            List<String> names = new ArrayList<>();
+            inDegrees.forEach((request, inDegree) -> {
+                if (inDegree > 0) {
+                    names.add(request.getName());
+                }
+            });
+            throw new IllegalArgumentException("Cyclic dependencies between requests: " + String.join(", ", names));
+        }
+        return sorted;
+    }
+
+    public boolean hasDependencies() {
+        return !expressions.isEmpty();
+    }
+
+    public List<HttpRequest> getRequests() {
+        return requests;
+    }
+
+    /**
+     * response of the request is referenced by other requests
+     */
+    public boolean isDependency(HttpRequest request) {
+        return expressions.containsKey(request);
+    }
+
+    public List<HttpRequest> getDependencies(HttpRequest request) {
+        return dependencies.getOrDefault(request, List.of());
+    }
+
+    /**
+     * extract values referenced by other requests from response of executed request
+     *
+     * @param request executed request
+     * @param body    response body
+     * @return expression to value, and expression is used as variable name
+     */
+    public Map<String, Object> extractValues(HttpRequest request, byte[] body) throws IOException {
+        final Set<String> requestExpressions = expressions.get(request);
+        if (requestExpressions == null) {
+            return Map.of();
+        }
+        Map<String, Object> values = new HashMap<>();
+        String bodyText = null;
+        for (String expression : requestExpressions) {
+            // name.response.xxx
+            final String path = expression.substring(expression.indexOf(".response.") + 10);
+            Object value = null;
+            if (path.equals("status")) {
+                value = request.getResponseStatus();
+            } else if (path.startsWith("headers.")) {
+                value = responseHeader(request, path.substring(8));
+            } else if (path.equals("body") || path.startsWith("body.")) {
+                if (bodyText == null) {
+                    bodyText = new String(body, StandardCharsets.UTF_8);
+                }
+                if (path.equals("body")) {
+                    value = bodyText;
+                } else {
+                    value = JsonPathUtils.read(body, path.substring(5));
+                    if (value instanceof Map || value instanceof Collection) { // object and array as JSON text
+                        value = JsonUtils.writeValueAsString(value);
+                    }
+                }
+            }
+            values.put(expression, value == null ? "" : value);
+        }
+        return values;
+    }
+
+    @Nullable
+    private static String responseHeader(HttpRequest request, String name) {
+        final Map<String, String> responseHeaders = request.getResponseHeaders();
+        if (responseHeaders != null) {
+            for (Map.Entry<String, String> entry : responseHeaders.entrySet()) {
+                if (entry.getKey().equalsIgnoreCase(name)) {
+                    return entry.getValue();
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,78 @@
+package org.mvnsearch.http.model;
+
+import java.util.*;
+
+/**
+ * index of requests in http file: name/index lookup by hash map, and `line:N` lookup by binary search on line ranges,
+ * because lines of requests are continuous and not overlapped.
+ *
+ * @author linux_china
+ */
+public class HttpRequestIndex {
+    private final List<HttpRequest> requests;
+    /**
+     * lower case name or index to requests in file order, and names may be duplicated
+     */
+    private final Map<String, List<HttpRequest>> nameIndex = new HashMap<>();
+    private final int[] firstLineNumbers;
+
+    public HttpRequestIndex(List<HttpRequest> requests) {
+        this.requests = requests;
+        this.firstLineNumbers = new int[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            final HttpRequest request = requests.get(i);
+            firstLineNumbers[i] = request.getFirstLineNumber();
+            final String indexKey = request.getIndex().toString();
+            nameIndex.computeIfAbsent(indexKey, key -> new ArrayList<>()).add(request);
+            final String name = request.getName();
+            if (name != null && !name.equalsIgnoreCase(indexKey)) {
+                nameIndex.computeIfAbsent(name.toLowerCase(), key -> new ArrayList<>()).add(request);
+            }
+        }
+    }
+
+    public List<HttpRequest> getRequests() {
+        return requests;
+    }
+
+    /**
+     * find requests by target, same as {@link HttpRequest#match(String)} on all requests
+     *
+     * @param target target: name, index or line:N
+     * @return matched requests in file order
+     */
+    public List<HttpRequest> find(String target) {
+        if (target.startsWith("line:")) {
+            int lineNumber = Integer.parseInt(target.substring(5));
+            if (lineNumber == 0) {
+                lineNumber = 1;
+            }
+            final HttpRequest request = findByLineNumber(lineNumber);
+            return request == null ? Collections.emptyList() : List.of(request);
+        }
+        final List<HttpRequest> matched = nameIndex.get(target.toLowerCase());
+        if (matched == null) {
+            return Collections.emptyList();
+        }
+        if (matched.size() > 1) { // index and name from different requests
+            List<HttpRequest> result = new ArrayList<>(matched);
+            result.sort(Comparator.comparing(HttpRequest::getIndex));
+            return result;
+        }
+        return matched;
+    }
+
+    private HttpRequest findByLineNumber(int lineNumber) {
+        int position = Arrays.binarySearch(firstLineNumbers, lineNumber);
+        if (position < 0) {
+            position = -position - 2;  // request with the largest first line before the line
+        }
+        if (position >= 0) {
+            final HttpRequest request = requests.get(position);
+            if (request.containsLineNumber(lineNumber)) {
+                return request;
+            }
+        }
+        return null;
+    }
+}
@@ -15,6 +15,10 @@ public class HttpRequestTarget {
     private int port;
     private String query;
     private String schema;
+    /**
+     * protocol from request line, such as HTTP/1.1, HTTP/2
+     */
+    private String protocol;
     private URI uri;
 
     public String getRequestLine() {
@@ -65,6 +69,10 @@ public class HttpRequestTarget {
         return schema;
     }
 
+    public String getProtocol() {
+        return protocol;
+    }
+
     public void setSchema(String schema) {
         this.schema = schema;
     }
@@ -170,6 +178,7 @@ public class HttpRequestTarget {
         if (requestLine.contains(" HTTP/")) {  // request line with protocol `GET /index.html HTTP/1.1`
             requestUri = requestLine.substring(0, requestLine.lastIndexOf(" "));
             final String protocol = requestLine.substring(requestLine.lastIndexOf(" ") + 1);
+            requestTarget.protocol = protocol;
             if (protocol.contains("HTTPS")) {
                 requestTarget.schema = "https://";
             }
@@ -0,0 +1,104 @@
+package org.mvnsearch.http.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * compiled request for repeated execution, such as load mode: pre-script is executed once,
+ * and request lines are compiled into {@link HttpTemplate}, then `{{$random.uuid}}` or `{{$timestamp}}` is evaluated per render.
+ *
+ * @author linux_china
+ */
+public class HttpRequestTemplate {
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+    private final HttpRequest source;
+    private final Map<String, Object> context;
+    private final HttpTemplate[] lineTemplates;
+    /**
+     * parsed request if all lines are constant, and it's copied for every render
+     */
+    private final HttpRequest constantRequest;
+
+    private HttpRequestTemplate(HttpRequest source, Map<String, Object> context, HttpTemplate[] lineTemplates) {
+        this.source = source;
+        this.context = context;
+        this.lineTemplates = lineTemplates;
+        boolean constant = true;
+        for (HttpTemplate lineTemplate : lineTemplates) {
+            if (!lineTemplate.isConstant()) {
+                constant = false;
+                break;
+            }
+        }
+        this.constantRequest = constant ? renderLines(context) : null;
+    }
+
+    /**
+     * compile request, and the request should not be parsed
+     *
+     * @param httpRequest http request from split
+     * @param context     context
+     * @return request template
+     */
+    public static HttpRequestTemplate compile(HttpRequest httpRequest, Map<String, Object> context) {
+        final Map<String, Object> newContext = HttpRequestParser.prepareContext(httpRequest, context);
+        final List<String> requestLines = httpRequest.getRequestLines();
+        HttpTemplate[] lineTemplates = new HttpTemplate[requestLines.size()];
+        for (int i = 0; i < lineTemplates.length; i++) {
+            lineTemplates[i] = HttpTemplate.compile(requestLines.get(i));
+        }
+        return new HttpRequestTemplate(httpRequest, newContext, lineTemplates);
+    }
+
+    /**
+     * render a new parsed request
+     */
+    public HttpRequest render() {
+        if (constantRequest != null) {
+            return constantRequest.copy();
+        }
+        return renderLines(context);
+    }
+
+    /**
+     * render a new parsed request with extra variables, such as row of data file
+     *
+     * @param variables variables to overwrite compiled context
+     */
+    public HttpRequest render(Map<String, Object> variables) {
+        if (constantRequest != null) {
+            return constantRequest.copy();
+        }
+        Map<String, Object> newContext = new HashMap<>(context);
+        newContext.putAll(variables);
+        return renderLines(newContext);
+    }
+
+    private HttpRequest renderLines(Map<String, Object> context) {
+        final HttpRequest httpRequest = source.copy();
+        final StringBuilder builder = BUILDER.get();
+        List<String> lines = new ArrayList<>(lineTemplates.length);
+        HttpGlobalFunctions.freezeClock();
+        try {
+            for (HttpTemplate lineTemplate : lineTemplates) {
+                if (lineTemplate.isConstant()) {
+                    lines.add(lineTemplate.getText());
+                    continue;
+                }
+                builder.setLength(0);
+                lineTemplate.render(builder, context);
+                if (builder.indexOf("\n") >= 0) { // multi lines value
+                    lines.addAll(builder.toString().lines().toList());
+                } else {
+                    lines.add(builder.toString());
+                }
+            }
+        } finally {
+            HttpGlobalFunctions.unfreezeClock();
+        }
+        HttpRequestParser.parseLines(httpRequest, lines);
+        return httpRequest;
+    }
+}
@@ -0,0 +1,245 @@
+package org.mvnsearch.http.model;
+
+import org.mvnsearch.http.logging.HttpxErrorCodeLogger;
+import org.mvnsearch.http.logging.HttpxErrorCodeLoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * compiled template of `{{variable}}`, `{{$function arg1 %name `hello %{name}`}}` and `%{name}`:
+ * text is scanned once into segments(literal, variable lookup, function call with parsed arguments),
+ * then rendered many times without scanning, such as load mode.
+ *
+ * @author linux_china
+ */
+public class HttpTemplate {
+    private static final HttpxErrorCodeLogger log = HttpxErrorCodeLoggerFactory.getLogger(HttpTemplate.class);
+    private final String text;
+    private final Segment[] segments;
+
+    private HttpTemplate(String text, Segment[] segments) {
+        this.text = text;
+        this.segments = segments;
+    }
+
+    /**
+     * compile text with `{{variable}}` and `{{$function}}`
+     */
+    public static HttpTemplate compile(String text) {
+        int offset = text.indexOf("{{");
+        if (offset < 0) {
+            return new HttpTemplate(text, new Segment[]{new Literal(text)});
+        }
+        List<Segment> segments = new ArrayList<>();
+        int start = 0;
+        while (offset >= 0) {
+            final int end = text.indexOf("}}", offset + 2);
+            if (end < 0) { // closure not found
+                break;
+            }
+            if (offset > start) {
+                segments.add(new Literal(text.substring(start, offset)));
+            }
+            final String name = text.substring(offset + 2, end).trim();
+            if (name.startsWith("$")) {
+                segments.add(compileFunction(name));
+            } else {
+                segments.add(new Variable(name));
+            }
+            start = end + 2;
+            offset = text.indexOf("{{", start);
+        }
+        if (start < text.length()) {
+            segments.add(new Literal(text.substring(start)));
+        }
+        return new HttpTemplate(text, segments.toArray(new Segment[0]));
+    }
+
+    /**
+     * compile template string with `%{name}`, and it's used as function argument
+     */
+    public static HttpTemplate compilePercent(String template) {
+        int offset = template.indexOf("%{");
+        if (offset < 0) {
+            return new HttpTemplate(template, new Segment[]{new Literal(template)});
+        }
+        List<Segment> segments = new ArrayList<>();
+        int start = 0;
+        while (offset >= 0) {
+            final int end = template.indexOf('}', offset);
+            if (end < 0) {
+                log.error("HTX-002-503", template);
+                System.exit(-1);
+            }
+            if (offset > start) {
+                segments.add(new Literal(template.substring(start, offset)));
+            }
+            segments.add(new Variable(template.substring(offset + 2, end)));
+            start = end + 1;
+            offset = template.indexOf("%{", start);
+        }
+        if (start < template.length()) {
+            segments.add(new Literal(template.substring(start)));
+        }
+        return new HttpTemplate(template, segments.toArray(new Segment[0]));
+    }
+
+    /**
+     * compile function expression, such as `$randomInt 1 %max`, `$base64 'abc 1234'` and `$md5 `%{name}``
+     */
+    public static FunctionCall compileFunction(String functionExpression) {
+        String functionName = functionExpression.substring(1);
+        List<Argument> arguments = new ArrayList<>();
+        final int nameEnd = functionName.indexOf(' ');
+        if (nameEnd > 0) { //contains function params
+            functionName = functionName.substring(0, nameEnd);
+            String paramsText = functionExpression.substring(functionExpression.indexOf(' ') + 1).trim();
+            // fun1 %name text    fun1 `hello %{name}` %demo demo
+            while (!paramsText.isEmpty()) {
+                String param;
+                final char first = paramsText.charAt(0);
+                if (first == '`' || first == '"' || first == '\'') {
+                    final int offset = paramsText.indexOf(first, 1);
+                    if (offset < 0) {
+                        log.error("HTX-002-502", paramsText);
+                        System.exit(-1);
+                    }
+                    param = paramsText.substring(0, offset + 1);
+                    paramsText = paramsText.substring(offset + 1).trim();
+                } else {
+                    final int offset = paramsText.indexOf(' ', 1);
+                    if (offset > 0) {
+                        param = paramsText.substring(0, offset);
+                        paramsText = paramsText.substring(offset + 1).trim();
+                    } else {
+                        param = paramsText;
+                        paramsText = "";
+                    }
+                }
+                arguments.add(compileArgument(param));
+            }
+        }
+        return new FunctionCall(functionName, arguments.toArray(new Argument[0]),
+                HttpGlobalFunctions.getInstance().findFunction(functionName));
+    }
+
+    private static Argument compileArgument(String param) {
+        if (param.startsWith("%")) {
+            return new ContextArgument(param.substring(1));
+        } else if (param.startsWith("`")) {
+            return new TemplateArgument(compilePercent(param.substring(1, param.length() - 1)));
+        } else if (param.startsWith("\"") || param.startsWith("'")) {
+            return new LiteralArgument(param.substring(1, param.length() - 1));
+        } else {
+            return new LiteralArgument(param);
+        }
+    }
+
+    /**
+     * constant template without variables and functions
+     */
+    public boolean isConstant() {
+        return segments.length == 1 && segments[0] instanceof Literal;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String render(Map<String, Object> context) {
+        if (isConstant()) {
+            return text;
+        }
+        StringBuilder builder = new StringBuilder(text.length() + 32);
+        render(builder, context);
+        return builder.toString();
+    }
+
+    /**
+     * render into builder, and the builder can be reused by caller
+     */
+    public void render(StringBuilder builder, Map<String, Object> context) {
+        for (Segment segment : segments) {
+            segment.render(builder, context);
+        }
+    }
+
+    private interface Segment {
+        void render(StringBuilder builder, Map<String, Object> context);
+    }
+
+    private record Literal(String text) implements Segment {
+        @Override
+        public void render(StringBuilder builder, Map<String, Object> context) {
+            builder.append(text);
+        }
+    }
+
+    private record Variable(String name) implements Segment {
+        @Override
+        public void render(StringBuilder builder, Map<String, Object> context) {
+            final Object value = context.get(name);
+            if (value != null) {
+                builder.append(value);
+            }
+        }
+    }
+
+    /**
+     * function call with parsed arguments, and function is resolved again if not found in compile
+     */
+    public record FunctionCall(String name, Argument[] arguments,
+                               Function<String[], String> function) implements Segment {
+
+        public String evaluate(Map<String, Object> context) {
+            Function<String[], String> httpFunction = function;
+            if (httpFunction == null) {
+                httpFunction = HttpGlobalFunctions.getInstance().findFunction(name);
+                if (httpFunction == null) {
+                    return null;
+                }
+            }
+            String[] args = new String[arguments.length];
+            for (int i = 0; i < arguments.length; i++) {
+                args[i] = arguments[i].evaluate(context);
+            }
+            return httpFunction.apply(args);
+        }
+
+        @Override
+        public void render(StringBuilder builder, Map<String, Object> context) {
+            final String value = evaluate(context);
+            if (value != null) {
+                builder.append(value);
+            }
+        }
+    }
+
+    interface Argument {
+        String evaluate(Map<String, Object> context);
+    }
+
+    private record LiteralArgument(String value) implements Argument {
+        @Override
+        public String evaluate(Map<String, Object> context) {
+            return value;
+        }
+    }
+
+    private record ContextArgument(String name) implements Argument {
+        @Override
+        public String evaluate(Map<String, Object> context) {
+            return context.getOrDefault(name, "").toString();
+        }
+    }
+
+    private record TemplateArgument(HttpTemplate template) implements Argument {
+        @Override
+        public String evaluate(Map<String, Object> context) {
+            return template.render(context);
+        }
+    }
+}
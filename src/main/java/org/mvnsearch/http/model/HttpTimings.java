@@ -0,0 +1,141 @@
+package org.mvnsearch.http.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * per-phase timings of http request: dns, connect, tls, request write(send), time to first byte(ttfb) and body read.
+ * Marks are System.nanoTime() and filled from netty event loop, and connection phases are zero for pooled connection.
+ *
+ * @author linux_china
+ */
+public class HttpTimings {
+    private final long start = System.nanoTime();
+    private volatile long resolveStart;
+    private volatile long resolveEnd;
+    private volatile long connectStart;
+    private volatile long channelActive;
+    private volatile long connected;
+    private volatile long requestStart;
+    private volatile long requestSent;
+    private volatile long responseReceived;
+    private volatile long end;
+
+    public void markResolveStart() {
+        resolveStart = System.nanoTime();
+    }
+
+    public void markResolveEnd() {
+        resolveEnd = System.nanoTime();
+    }
+
+    public void markConnectStart() {
+        connectStart = System.nanoTime();
+    }
+
+    /**
+     * mark channel active with time from channel attribute
+     *
+     * @param nanoTime System.nanoTime() of channel active
+     */
+    public void markChannelActive(long nanoTime) {
+        channelActive = nanoTime;
+    }
+
+    public void markConnected() {
+        // pooled connection is acquired without channel active
+        if (channelActive != 0 && connected == 0) {
+            connected = System.nanoTime();
+        }
+    }
+
+    public void markRequestStart() {
+        requestStart = System.nanoTime();
+    }
+
+    public void markRequestSent() {
+        requestSent = System.nanoTime();
+    }
+
+    public void markResponseReceived() {
+        if (responseReceived == 0) {
+            responseReceived = System.nanoTime();
+        }
+    }
+
+    public void markEnd() {
+        end = System.nanoTime();
+    }
+
+    public boolean isConnectionReused() {
+        return channelActive == 0;
+    }
+
+    public double dns() {
+        return millis(resolveStart, resolveEnd);
+    }
+
+    public double connect() {
+        return millis(resolveEnd > 0 ? resolveEnd : connectStart, channelActive);
+    }
+
+    /**
+     * tls handshake: netty connection is reported as connected after handshake for secure channel
+     */
+    public double tls() {
+        return millis(channelActive, connected);
+    }
+
+    public double send() {
+        return millis(requestStart, requestSent);
+    }
+
+    public double ttfb() {
+        return millis(requestSent > 0 ? requestSent : requestStart, responseReceived);
+    }
+
+    public double body() {
+        return millis(responseReceived, end);
+    }
+
+    public double total() {
+        return millis(start, end > 0 ? end : responseReceived);
+    }
+
+    /**
+     * timings in milliseconds with phase name as key
+     */
+    public Map<String, Double> toMap() {
+        Map<String, Double> phases = new LinkedHashMap<>();
+        phases.put("dns", dns());
+        phases.put("connect", connect());
+        phases.put("tls", tls());
+        phases.put("send", send());
+        phases.put("ttfb", ttfb());
+        phases.put("body", body());
+        phases.put("total", total());
+        return phases;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        toMap().forEach((phase, millis) -> {
+            if (!builder.isEmpty()) {
+                builder.append(' ');
+            }
+            builder.append(phase).append('=').append(millis).append("ms");
+        });
+        if (isConnectionReused()) {
+            builder.append(" (connection reused)");
+        }
+        return builder.toString();
+    }
+
+    private static double millis(long from, long to) {
+        if (from == 0 || to == 0 || to < from) {
+            return 0;
+        }
+        return Math.round((to - from) / 10_000.0) / 100.0;
+    }
+}
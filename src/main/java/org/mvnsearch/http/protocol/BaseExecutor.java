@@ -1,10 +1,11 @@
 package org.mvnsearch.http.protocol;
 
-import com.jayway.jsonpath.JsonPath;
 import org.jetbrains.annotations.Nullable;
 import org.mvnsearch.http.model.HttpRequest;
+import org.mvnsearch.http.utils.ConsoleOutput;
+import org.mvnsearch.http.utils.JsonPathUtils;
 import org.mvnsearch.http.utils.JsonUtils;
-import org.mvnsearch.http.vendor.Nodejs;
+import org.mvnsearch.http.vendor.JavaScriptEngine;
 import picocli.CommandLine;
 
 import java.net.URI;
@@ -52,7 +53,7 @@ public interface BaseExecutor {
         }
         try {
             if (jsonText.startsWith("{") || jsonText.startsWith("[")) {
-                final Object result = JsonPath.read(jsonText, jsonPath);
+                final Object result = JsonPathUtils.read(jsonText, jsonPath);
                 if (result != null) {
                     return JsonUtils.writeValueAsPrettyString(result);
                 } else {
@@ -86,7 +87,10 @@ public interface BaseExecutor {
     }
 
     default String colorOutput(String color, String text) {
-        return CommandLine.Help.Ansi.AUTO.string("@|" + color + " " + text + " |@");
+        if (!ConsoleOutput.ANSI_ENABLED) { // plain text without markup parsing, same as Ansi.OFF rendering
+            return text + " ";
+        }
+        return CommandLine.Help.Ansi.ON.string("@|" + color + " " + text + " |@");
     }
 
 
@@ -95,8 +99,9 @@ public interface BaseExecutor {
         if (javaScriptTestCode != null && !javaScriptTestCode.isEmpty()) {
             System.out.println();
             System.out.println("============Execute JS Test============");
-            final String jsTestOutput = Nodejs.executeHttpClientCode(javaScriptTestCode, statusCode, headers, contentType, body);
-            System.out.println(jsTestOutput);
+            final JavaScriptEngine.TestResult testResult = JavaScriptEngine.executeHttpClientTest(javaScriptTestCode, statusCode, headers, contentType, body);
+            httpRequest.setTestCases(testResult.tests());
+            System.out.println(testResult.output());
         }
     }
 }
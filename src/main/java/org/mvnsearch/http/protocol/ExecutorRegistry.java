@@ -0,0 +1,99 @@
+package org.mvnsearch.http.protocol;
+
+import org.jetbrains.annotations.Nullable;
+import org.mvnsearch.http.model.HttpMethod;
+import org.mvnsearch.http.model.HttpRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * executor registry: request method name to executor supplier, and executors are stateless, created on first use and reused.
+ * Suppliers are lambdas instead of constructor references, then executor classes and their client libraries(Kafka, Pulsar, AWS etc.)
+ * are not loaded until the method is used.
+ *
+ * @author linux_china
+ */
+public class ExecutorRegistry {
+    private static final Map<String, Supplier<BaseExecutor>> EXECUTORS = new ConcurrentHashMap<>();
+
+    static {
+        register(HttpMethod.HTTP_METHODS, () -> new HttpExecutor());
+        register(HttpMethod.WEBSOCKET_METHODS, () -> new WebSocketExecutor());
+        register(HttpMethod.REST_METHODS, () -> new JsonRestExecutor());
+        register(HttpMethod.RSOCKET_METHODS, () -> new RSocketExecutor());
+        register(HttpMethod.GRPC_METHODS, () -> new GrpcExecutor());
+        register(HttpMethod.GRAPHQL_METHODS, () -> new GraphqlExecutor());
+        register(HttpMethod.DUBBO_METHODS, () -> new DubboExecutor());
+        register(HttpMethod.SOFA_METHODS, () -> new SofaRpcExecutor());
+        register(HttpMethod.TARPC_METHODS, () -> new TarpcExecutor());
+        register(HttpMethod.MSGPACK_METHODS, () -> new MsgpackRpcExecutor());
+        register(HttpMethod.NVIM_METHODS, () -> new NeovimExecutor());
+        register(HttpMethod.JSONRPC_METHODS, () -> new JsonRpcExecutor());
+        register(HttpMethod.TRPC_METHODS, () -> new TrpcExecutor());
+        register(HttpMethod.THRIFT_METHODS, () -> new ThriftExecutor());
+        register(HttpMethod.ZEROMQ_METHODS, () -> new ZeromqExecutor());
+        register(HttpMethod.MAIL_METHODS, () -> new MailExecutor());
+        register(HttpMethod.PUB_METHODS, () -> new MessagePublishExecutor());
+        register(HttpMethod.SUB_METHODS, () -> new MessageSubscribeExecutor());
+        register(HttpMethod.MEMCACHE_METHODS, () -> new MemcacheExecutor());
+        register(HttpMethod.REDIS_METHODS, () -> new RedisExecutor());
+        register(HttpMethod.SSH_METHODS, () -> new SSHExecutor());
+        register(HttpMethod.AWS_METHODS, () -> new AwsExecutor());
+        register(HttpMethod.ALIYUN_METHODS, () -> new AliyunExecutor());
+        register(HttpMethod.CHATGPT_METHODS, () -> new ChatGPTExecutor());
+    }
+
+    /**
+     * register executor for methods, and the executor will be shared by the methods
+     *
+     * @param methodNames method names
+     * @param supplier    executor supplier
+     */
+    public static void register(List<String> methodNames, Supplier<BaseExecutor> supplier) {
+        final Supplier<BaseExecutor> lazyExecutor = lazy(supplier);
+        for (String methodName : methodNames) {
+            EXECUTORS.put(methodName, lazyExecutor);
+        }
+    }
+
+    /**
+     * find executor for request
+     *
+     * @param httpRequest http request
+     * @return executor, null if method not supported
+     */
+    @Nullable
+    public static BaseExecutor getExecutor(HttpRequest httpRequest) {
+        final HttpMethod requestMethod = httpRequest.getMethod();
+        String methodName = requestMethod.getName();
+        if (requestMethod.isGraphQLMethod() && httpRequest.getRequestTarget().getUri().toString().startsWith("rsocket")) {
+            methodName = HttpMethod.RSOCKET_METHODS.get(0); // GraphQL over RSocket
+        }
+        final Supplier<BaseExecutor> supplier = EXECUTORS.get(methodName);
+        return supplier == null ? null : supplier.get();
+    }
+
+    private static Supplier<BaseExecutor> lazy(Supplier<BaseExecutor> supplier) {
+        return new Supplier<>() {
+            private volatile BaseExecutor executor;
+
+            @Override
+            public BaseExecutor get() {
+                BaseExecutor result = executor;
+                if (result == null) {
+                    synchronized (this) {
+                        result = executor;
+                        if (result == null) {
+                            result = supplier.get();
+                            executor = result;
+                        }
+                    }
+                }
+                return result;
+            }
+        };
+    }
+}
@@ -0,0 +1,204 @@
+package org.mvnsearch.http.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import org.jetbrains.annotations.Nullable;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * request body from file: chunks are read by FileChannel into pooled buffers on demand of the connection,
+ * and encoded by gzip or deflate as they are read, then heap use is flat regardless of file size.
+ * Upload progress is printed to stderr for terminal.
+ *
+ * @author linux_china
+ */
+public class FileRequestBody {
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    /**
+     * chunks of body file
+     *
+     * @param bodyFile        body file
+     * @param contentEncoding gzip, deflate or null for identity
+     * @return body chunks, and file is closed on complete, error or cancel
+     */
+    public static Flux<ByteBuf> chunks(Path bodyFile, @Nullable String contentEncoding) {
+        final String encoding = contentEncoding == null ? null : contentEncoding.trim().toLowerCase();
+        return Flux.using(() -> new ChunkReader(bodyFile, encoding),
+                reader -> Flux.<ByteBuf>generate(sink -> {
+                    try {
+                        final ByteBuf chunk = reader.next();
+                        if (chunk == null) {
+                            sink.complete();
+                        } else {
+                            sink.next(chunk);
+                        }
+                    } catch (IOException e) {
+                        sink.error(e);
+                    }
+                }),
+                ChunkReader::close);
+    }
+
+    private static class ChunkReader {
+        private final FileChannel channel;
+        @Nullable
+        private final Deflater deflater;
+        private final boolean gzip;
+        private final CRC32 crc32 = new CRC32();
+        private final byte[] input = new byte[CHUNK_SIZE];
+        private final byte[] output = new byte[CHUNK_SIZE];
+        @Nullable
+        private final Progress progress;
+        private boolean headerWritten = false;
+        private boolean finished = false;
+        private long readBytes = 0;
+
+        ChunkReader(Path bodyFile, @Nullable String encoding) throws IOException {
+            this.channel = FileChannel.open(bodyFile, StandardOpenOption.READ);
+            this.gzip = "gzip".equals(encoding) || "x-gzip".equals(encoding);
+            // raw deflate for gzip with own header and trailer, zlib format for deflate
+            this.deflater = gzip || "deflate".equals(encoding) ? new Deflater(Deflater.DEFAULT_COMPRESSION, gzip) : null;
+            this.progress = System.console() != null ? new Progress(bodyFile.getFileName().toString(), channel.size(), System.err) : null;
+        }
+
+        /**
+         * next chunk
+         *
+         * @return chunk, null if end of file
+         */
+        @Nullable
+        ByteBuf next() throws IOException {
+            if (finished) {
+                return null;
+            }
+            if (deflater == null) {
+                final ByteBuf chunk = ByteBufAllocator.DEFAULT.directBuffer(CHUNK_SIZE);
+                try {
+                    final int length = chunk.writeBytes(channel, CHUNK_SIZE);
+                    if (length < 0) {
+                        chunk.release();
+                        finish();
+                        return null;
+                    }
+                    advance(length);
+                    return chunk;
+                } catch (IOException e) {
+                    chunk.release();
+                    throw e;
+                }
+            }
+            final ByteBuf chunk = ByteBufAllocator.DEFAULT.heapBuffer(CHUNK_SIZE);
+            if (gzip && !headerWritten) {
+                chunk.writeBytes(GZIP_HEADER);
+                headerWritten = true;
+            }
+            // deflater may buffer input, so read until compressed output available
+            while (chunk.readableBytes() == 0 || !deflater.needsInput()) {
+                if (deflater.needsInput()) {
+                    final int length = channel.read(ByteBuffer.wrap(input));
+                    if (length < 0) {
+                        deflater.finish();
+                        while (!deflater.finished()) {
+                            final int count = deflater.deflate(output);
+                            chunk.writeBytes(output, 0, count);
+                        }
+                        if (gzip) {
+                            chunk.writeIntLE((int) crc32.getValue());
+                            chunk.writeIntLE((int) readBytes);
+                        }
+                        finish();
+                        return chunk;
+                    }
+                    crc32.update(input, 0, length);
+                    deflater.setInput(input, 0, length);
+                    advance(length);
+                }
+                final int count = deflater.deflate(output);
+                chunk.writeBytes(output, 0, count);
+            }
+            return chunk;
+        }
+
+        private void advance(int length) {
+            readBytes += length;
+            if (progress != null) {
+                progress.update(readBytes);
+            }
+        }
+
+        private void finish() {
+            finished = true;
+            if (progress != null) {
+                progress.done(readBytes);
+            }
+        }
+
+        void close() {
+            if (deflater != null) {
+                deflater.end();
+            }
+            try {
+                channel.close();
+            } catch (IOException ignore) {
+                // read only
+            }
+        }
+    }
+
+    /**
+     * upload progress in one line, and it's refreshed at most every 200ms
+     */
+    static class Progress {
+        private final String fileName;
+        private final long total;
+        private final PrintStream out;
+        private long lastPrinted = 0;
+
+        Progress(String fileName, long total, PrintStream out) {
+            this.fileName = fileName;
+            this.total = total;
+            this.out = out;
+        }
+
+        void update(long sent) {
+            final long now = System.currentTimeMillis();
+            if (now - lastPrinted >= 200) {
+                lastPrinted = now;
+                print(sent);
+            }
+        }
+
+        void done(long sent) {
+            print(sent);
+            out.println();
+        }
+
+        private void print(long sent) {
+            final long percent = total > 0 ? sent * 100 / total : 100;
+            out.printf("\rUploading %s: %d%% (%s / %s)", fileName, percent, formatSize(sent), formatSize(total));
+            out.flush();
+        }
+
+        static String formatSize(long size) {
+            if (size < 1024) {
+                return size + " B";
+            } else if (size < 1024 * 1024) {
+                return String.format("%.1f KB", size / 1024.0);
+            } else if (size < 1024L * 1024 * 1024) {
+                return String.format("%.1f MB", size / (1024.0 * 1024));
+            }
+            return String.format("%.2f GB", size / (1024.0 * 1024 * 1024));
+        }
+    }
+}
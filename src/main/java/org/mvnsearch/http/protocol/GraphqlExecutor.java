@@ -50,11 +50,12 @@ public class GraphqlExecutor extends HttpBaseExecutor {
             }
         } catch (Exception ignore) {
             log.error("HTX-102-500", new String(requestJsonBody, StandardCharsets.UTF_8));
+            httpRequest.setResponseError("Invalid GraphQL request body");
             return Collections.emptyList();
         }
         final URI requestUri = httpRequest.getRequestTarget().getUri();
         //construct http client
-        HttpClient client = httpClient().headers(httpHeaders -> {
+        HttpClient client = httpClient(httpRequest).headers(httpHeaders -> {
             for (HttpHeader header : httpRequest.getHeaders()) {
                 if (header.getName().equalsIgnoreCase("Content-Type") && !header.getValue().contains("json")) {
                     httpHeaders.add(header.getName(), "application/json; charset=utf-8"); // convert application/graphql to application/json
@@ -63,8 +64,8 @@ public class GraphqlExecutor extends HttpBaseExecutor {
                 }
             }
         });
-        for (HttpCookie cookie : cookies(requestUri.getHost())) {
-            client.cookie(cookie.toNettyCookie());
+        for (HttpCookie cookie : cookies(requestUri)) {
+            client = client.cookie(cookie.toNettyCookie());
         }
         System.out.println("GRAPHQL " + requestUri);
         System.out.println();
@@ -1,124 +1,376 @@
 package org.mvnsearch.http.protocol;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpResponseStatus;
-import io.netty.handler.ssl.SslContextBuilder;
-import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import io.netty.util.ReferenceCountUtil;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.jetbrains.annotations.Nullable;
 import org.mvnsearch.http.logging.HttpxErrorCodeLogger;
 import org.mvnsearch.http.logging.HttpxErrorCodeLoggerFactory;
 import org.mvnsearch.http.model.HttpCookie;
+import org.mvnsearch.http.model.HttpCookieJar;
 import org.mvnsearch.http.model.HttpRequest;
-import org.mvnsearch.http.vendor.Nodejs;
+import org.mvnsearch.http.model.HttpTimings;
+import org.mvnsearch.http.utils.ConsoleOutput;
+import org.mvnsearch.http.utils.JsonUtils;
+import org.mvnsearch.http.utils.JsonStreamPrettyPrinter;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
 import reactor.netty.http.client.HttpClient;
-import reactor.netty.transport.ProxyProvider;
+import reactor.netty.http.client.HttpClientResponse;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
 import java.util.*;
+import java.util.stream.Stream;
 
 public abstract class HttpBaseExecutor implements BaseExecutor {
     private static final HttpxErrorCodeLogger log = HttpxErrorCodeLoggerFactory.getLogger(HttpBaseExecutor.class);
+    private static final int BODY_PREFETCH = 32;
+    private static final long STREAMING_THRESHOLD = 16 * 1024 * 1024;
 
     protected HttpClient httpClient() {
-        HttpClient httpClient = HttpClient.create().secure(sslContextSpec -> {
-            try {
-                sslContextSpec.sslContext(SslContextBuilder.forClient().trustManager(InsecureTrustManagerFactory.INSTANCE).build());
-            } catch (Exception ignore) {
+        return HttpClientRegistry.httpClient();
+    }
+
+    /**
+     * http client with connection and request observers to capture per-phase timings of the request.
+     * Observers of request don't change channel hash of client config, then connections are still pooled and reused,
+     * and time of channel active is read from channel attribute set by the handler of shared client.
+     */
+    protected HttpClient httpClient(HttpRequest httpRequest) {
+        final HttpTimings timings = new HttpTimings();
+        httpRequest.setTimings(timings);
+        return HttpClientRegistry.httpClient(httpProtocol(httpRequest))
+                .doOnConnect(config -> timings.markConnectStart())
+                .doOnResolve(connection -> timings.markResolveStart())
+                .doAfterResolve((connection, address) -> timings.markResolveEnd())
+                .doOnConnected(connection -> {
+                    // attribute is on parent channel for HTTP/2 stream, and it's cleared then acquired connection is reported as reused
+                    final Channel channel = connection.channel().parent() != null ? connection.channel().parent() : connection.channel();
+                    final Long channelActive = channel.attr(HttpClientRegistry.CHANNEL_ACTIVE).getAndSet(null);
+                    if (channelActive != null) {
+                        timings.markChannelActive(channelActive);
+                    }
+                    timings.markConnected();
+                })
+                .doOnRequest((request, connection) -> timings.markRequestStart())
+                .doAfterRequest((request, connection) -> timings.markRequestSent())
+                .doOnRedirect((response, connection) -> captureCookies(response))
+                .doOnResponse((response, connection) -> {
+                    timings.markResponseReceived();
+                    captureCookies(response);
+                });
+    }
+
+    /**
+     * HTTP/2 by `HTTP/2` in request line or `--http2`: H2 over TLS and H2C for plain text, and `HTTP/1.1` in request line disables `--http2`
+     */
+    protected HttpProtocol httpProtocol(HttpRequest httpRequest) {
+        final String protocol = httpRequest.getRequestTarget().getProtocol();
+        final boolean http2 = protocol != null ? protocol.startsWith("HTTP/2") : Boolean.getBoolean("httpx.http2");
+        if (!http2) {
+            return HttpProtocol.HTTP11;
+        }
+        final String scheme = httpRequest.getRequestTarget().getUri().getScheme();
+        return "https".equalsIgnoreCase(scheme) ? HttpProtocol.H2 : HttpProtocol.H2C;
+    }
+
+    /**
+     * capture `Set-Cookie` of response and redirect response into cookie jar
+     */
+    private static void captureCookies(HttpClientResponse response) {
+        final List<String> setCookieHeaders = response.responseHeaders().getAll("Set-Cookie");
+        if (!setCookieHeaders.isEmpty()) {
+            HttpCookieJar.getInstance().addSetCookies(URI.create(response.resourceUrl()), setCookieHeaders);
+        }
+    }
 
+    /**
+     * cookies for the request URI from process-wide cookie jar
+     */
+    protected List<HttpCookie> cookies(URI requestUri) {
+        return HttpCookieJar.getInstance().cookies(requestUri);
+    }
+
+    public List<byte[]> request(HttpClient.ResponseReceiver<?> responseReceiver, URI requestUri, HttpRequest httpRequest) {
+        return request(responseReceiver, requestUri, httpRequest, null, null);
+    }
+
+    /**
+     * request with response cache: 200 response is stored, and cached body is replayed on 304 of revalidation
+     *
+     * @param responseCache response cache
+     * @param cachedEntry   cached entry for revalidation
+     */
+    protected List<byte[]> request(HttpClient.ResponseReceiver<?> responseReceiver, URI requestUri, HttpRequest httpRequest,
+                                   @Nullable ResponseCache responseCache, @Nullable ResponseCache.Entry cachedEntry) {
+        // receive response in netty event loop, and print output in caller thread with bounded prefetch of body chunks
+        try (Stream<Object> frames = responseReceiver
+                .uri(requestUri)
+                .response((response, byteBufFlux) -> Flux.<Object>concat(Mono.just(response), byteBufFlux.retain()))
+                .doOnDiscard(ByteBuf.class, ReferenceCountUtil::safeRelease)
+                .toStream(BODY_PREFETCH)) {
+            final Iterator<Object> iterator = frames.iterator();
+            if (!iterator.hasNext()) {
+                httpRequest.setResponseError("No response");
+                return Collections.emptyList();
+            }
+            final HttpClientResponse response = (HttpClientResponse) iterator.next();
+            if (response.status() == HttpResponseStatus.NOT_MODIFIED && responseCache != null && cachedEntry != null) {
+                readBody(iterator);
+                final ResponseCache.Entry refreshed = responseCache.refresh(httpRequest, cachedEntry, response.responseHeaders());
+                return handleResponse(HttpResponseStatus.valueOf(refreshed.status()), refreshed.toHttpHeaders(), cachedBody(refreshed),
+                        requestUri, httpRequest, null, "revalidated");
             }
-        });
-        if (System.getProperty("http.proxyHost") != null) {
-            httpClient = httpClient.proxy(spec -> spec.type(ProxyProvider.Proxy.HTTP)
-                    .host(System.getProperty("http.proxyHost"))
-                    .port(Integer.parseInt(System.getProperty("http.proxyPort")))
-                    .connectTimeoutMillis(20_000));
-        }
-        return httpClient;
+            return handleResponse(response.status(), response.responseHeaders(), iterator, requestUri, httpRequest, responseCache, null);
+        } catch (RuntimeException e) {
+            // connection refused, timeout or TLS failure
+            if (httpRequest.getResponseStatus() == null) {
+                httpRequest.setResponseError(e.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+            throw e;
+        }
     }
 
-    protected List<HttpCookie> cookies(String domain) {
-        try {
-            final String httpFilePath = System.getProperty("http.file");
-            Path cookieFile;
-            if (httpFilePath != null) {
-                cookieFile = Path.of(httpFilePath).getParent().resolve(".idea/httpRequests/http-client.cookies").toAbsolutePath();
+    /**
+     * replay fresh entry of response cache without request
+     */
+    protected List<byte[]> replay(ResponseCache responseCache, ResponseCache.Entry cachedEntry, URI requestUri, HttpRequest httpRequest) {
+        responseCache.touch(httpRequest);
+        return handleResponse(HttpResponseStatus.valueOf(cachedEntry.status()), cachedEntry.toHttpHeaders(), cachedBody(cachedEntry),
+                requestUri, httpRequest, null, "fresh");
+    }
+
+    private static Iterator<Object> cachedBody(ResponseCache.Entry cachedEntry) {
+        return List.<Object>of(Unpooled.wrappedBuffer(cachedEntry.body())).iterator();
+    }
+
+    /**
+     * print status, headers and body of response
+     *
+     * @param iterator      body chunks
+     * @param responseCache cache to store response, null if response is not cacheable
+     * @param cacheStatus   fresh or revalidated if response replayed from cache
+     */
+    private List<byte[]> handleResponse(HttpResponseStatus httpStatus, HttpHeaders responseHeaders, Iterator<Object> iterator, URI requestUri,
+                                        HttpRequest httpRequest, @Nullable ResponseCache responseCache, @Nullable String cacheStatus) {
+        final HttpTimings timings = httpRequest.getTimings();
+        httpRequest.setResponseStatus(httpStatus.code());
+        final Map<String, String> httpResponseHeaders = new HashMap<>();
+        responseHeaders.forEach(header -> httpResponseHeaders.put(header.getKey(), header.getValue()));
+        httpRequest.setResponseHeaders(httpResponseHeaders);
+        String contentType = responseHeaders.get("Content-Type");
+        // buffered response is redirected from result after execution
+        final ResponseFileSink fileSink = httpRequest.isBufferedResponse() ? null : ResponseFileSink.open(httpRequest);
+        httpRequest.setResponseRedirected(!httpRequest.isBufferedResponse() && httpRequest.getRedirectResponse() != null);
+        final boolean streaming = fileSink == null && isStreaming(httpRequest, responseHeaders);
+        // read body before output in buffered mode, then body-read time is available under status line
+        byte[] content = null;
+        if (fileSink == null && !streaming) {
+            content = readBody(iterator);
+            httpRequest.setResponseBytes(content.length);
+            if (timings != null) {
+                timings.markEnd();
+            }
+            if (responseCache != null) {
+                responseCache.store(httpRequest, httpStatus.code(), responseHeaders, content);
+            }
+        }
+        if (httpStatus == HttpResponseStatus.OK) {
+            System.out.println(colorOutput("bold,green", "Status: " + httpStatus));
+        } else {
+            System.out.println(colorOutput("bold,red", "Status: " + httpStatus));
+        }
+        if (timings != null) {
+            System.out.println(colorOutput("faint", "Timing: " + timings));
+        }
+        if (cacheStatus != null) {
+            System.out.println(colorOutput("faint", "Cache: " + cacheStatus));
+        }
+        //color header
+        responseHeaders.forEach(header -> System.out.println(colorOutput("green", header.getKey()) + ": " + header.getValue()));
+        System.out.println();
+        if (fileSink != null || streaming) {
+            if (fileSink != null) {
+                redirectBody(iterator, fileSink, httpRequest, contentType);
+                httpRequest.setResponseBytes(fileSink.getSize());
             } else {
-                cookieFile = Path.of(".idea/httpRequests/http-client.cookies");
+                httpRequest.setResponseBytes(streamBody(iterator, contentType));
             }
-            if (cookieFile.toFile().exists()) {
-                final List<String> lines = Files.readAllLines(cookieFile);
-                if (lines.size() > 1) {
-                    List<HttpCookie> cookies = new ArrayList<>();
-                    final long now = System.currentTimeMillis();
-                    for (String line : lines.subList(1, lines.size())) {
-                        final HttpCookie cookie = HttpCookie.valueOf(line);
-                        if (cookie.getDomain().equalsIgnoreCase(domain) && cookie.getExpired().getTime() > now) {
-                            cookies.add(cookie);
-                        }
+            if (timings != null) {
+                timings.markEnd();
+                logTimings(httpRequest, requestUri, timings);
+            }
+            return Collections.emptyList();
+        }
+        if (timings != null) {
+            logTimings(httpRequest, requestUri, timings);
+        }
+        if (content.length == 0) {
+            runJsTest(httpRequest, httpStatus.code(), httpResponseHeaders, contentType, "");
+            return Collections.emptyList();
+        }
+        if (contentType != null && isPrintable(contentType)) {
+            String body;
+            if (contentType.contains("json")) {
+                body = new String(content, StandardCharsets.UTF_8);
+                System.out.print(prettyJsonFormatWithJsonPath(body, httpRequest.getHeader("X-JSON-Path")));
+            } else {
+                body = new String(content);
+                System.out.print(body);
+            }
+            runJsTest(httpRequest, httpStatus.code(), httpResponseHeaders, contentType, body);
+        }
+        return List.of(content);
+    }
+
+    /**
+     * append timings of request as JSON line to the file from `--timing-log`
+     */
+    private void logTimings(HttpRequest httpRequest, URI requestUri, HttpTimings timings) {
+        final String timingLog = System.getProperty("httpx.timingLog");
+        if (timingLog == null) {
+            return;
+        }
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("timestamp", Instant.now().toString());
+        record.put("name", httpRequest.getName());
+        record.put("method", httpRequest.getMethod().getName());
+        record.put("uri", requestUri.toString());
+        record.put("status", httpRequest.getResponseStatus());
+        record.put("reused", timings.isConnectionReused());
+        record.putAll(timings.toMap());
+        final String line = JsonUtils.writeValueAsString(record) + "\n";
+        synchronized (HttpBaseExecutor.class) {
+            try {
+                Files.writeString(Path.of(timingLog), line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                log.error("HTX-001-500", timingLog, e);
+            }
+        }
+    }
+
+    /**
+     * streaming mode with `--stream` or large response, and JS test or X-JSON-Path needs the whole body
+     */
+    protected boolean isStreaming(HttpRequest httpRequest, HttpHeaders responseHeaders) {
+        if (httpRequest.isBufferedResponse()) {
+            return false;
+        }
+        final String jsTestCode = httpRequest.getJavaScriptTestCode();
+        if ((jsTestCode != null && !jsTestCode.isEmpty()) || httpRequest.getHeader("X-JSON-Path") != null) {
+            return false;
+        }
+        if (Boolean.getBoolean("httpx.stream")) {
+            return true;
+        }
+        final String contentLength = responseHeaders.get("Content-Length");
+        return contentLength != null && NumberUtils.toLong(contentLength) > STREAMING_THRESHOLD;
+    }
+
+    /**
+     * write body chunks to redirect file, and body is kept in memory only for JS test
+     */
+    private void redirectBody(Iterator<Object> iterator, ResponseFileSink fileSink, HttpRequest httpRequest, @Nullable String contentType) {
+        final String jsTestCode = httpRequest.getJavaScriptTestCode();
+        final ByteArrayOutputStream bos = jsTestCode != null && !jsTestCode.isEmpty() ? new ByteArrayOutputStream() : null;
+        try {
+            while (iterator.hasNext()) {
+                final ByteBuf byteBuf = (ByteBuf) iterator.next();
+                try {
+                    fileSink.write(byteBuf);
+                    if (bos != null) {
+                        byteBuf.readBytes(bos, byteBuf.readableBytes());
                     }
-                    return cookies;
+                } finally {
+                    byteBuf.release();
                 }
             }
-        } catch (Exception e) {
-            log.error("HTX-100-600", e);
-            e.printStackTrace();
+            fileSink.close();
+        } catch (IOException e) {
+            fileSink.abort();
+            log.error("HTX-001-500", httpRequest.getRedirectResponse(), e);
+            return;
+        }
+        if (bos != null) {
+            //noinspection ConstantConditions
+            runJsTest(httpRequest, httpRequest.getResponseStatus(), httpRequest.getResponseHeaders(), contentType, bos.toString(StandardCharsets.UTF_8));
+        }
+    }
+
+    private byte[] readBody(Iterator<Object> iterator) {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        while (iterator.hasNext()) {
+            final ByteBuf byteBuf = (ByteBuf) iterator.next();
+            try {
+                byteBuf.readBytes(bos, byteBuf.readableBytes());
+            } catch (IOException ignore) {
+                // ByteArrayOutputStream
+            } finally {
+                byteBuf.release();
+            }
         }
-        return Collections.emptyList();
+        return bos.toByteArray();
     }
 
-    public List<byte[]> request(HttpClient.ResponseReceiver<?> responseReceiver, URI requestUri, HttpRequest httpRequest) {
-        final byte[] bytes = responseReceiver
-                .uri(requestUri)
-                .responseSingle((response, byteBufMono) -> {
-                    final HttpResponseStatus httpStatus = response.status();
-                    if (httpStatus == HttpResponseStatus.OK) {
-                        System.out.println(colorOutput("bold,green", "Status: " + httpStatus));
-                    } else {
-                        System.out.println(colorOutput("bold,red", "Status: " + httpStatus));
-                    }
-                    final HttpHeaders responseHeaders = response.responseHeaders();
-                    final Map<String, String> httpResponseHeaders = new HashMap<>();
-                    //color header
-                    responseHeaders.forEach(header -> {
-                        httpResponseHeaders.put(header.getKey(), header.getValue());
-                        System.out.println(colorOutput("green", header.getKey()) + ": " + header.getValue());
-                    });
-                    System.out.println();
-                    String contentType = responseHeaders.get("Content-Type");
-                    return byteBufMono.asByteArray().doOnNext(content -> {
-                        if (contentType != null && isPrintable(contentType)) {
-                            String result;
-                            if (contentType.contains("json")) {
-                                result = new String(content, StandardCharsets.UTF_8);
-                                final String body = prettyJsonFormatWithJsonPath(result, httpRequest.getHeader("X-JSON-Path"));
-                                System.out.print(body);
-                            } else {
-                                result = new String(content);
-                                System.out.print(result);
-                            }
-                            final String javaScriptTestCode = httpRequest.getJavaScriptTestCode();
-                            if (javaScriptTestCode != null && !javaScriptTestCode.isEmpty()) {
-                                System.out.println();
-                                System.out.println("============Execute JS Test============");
-                                final String jsTestOutput = Nodejs.executeHttpClientCode(javaScriptTestCode, httpStatus.code(), httpResponseHeaders, contentType, result);
-                                System.out.println(jsTestOutput);
+    /**
+     * write body chunks to stdout as they arrive: JSON by incremental pretty printer, text as it is,
+     * and binary only when stdout is not a terminal
+     */
+    private long streamBody(Iterator<Object> iterator, @Nullable String contentType) {
+        final PrintStream out = System.out;
+        final boolean printable = contentType != null && isPrintable(contentType);
+        if (!printable && System.console() != null) {
+            System.out.println(colorOutput("yellow", "Binary output is omitted for terminal, please use redirect to save it"));
+        }
+        JsonStreamPrettyPrinter jsonPrinter = null;
+        long total = 0;
+        try {
+            if (printable && contentType.contains("json")) {
+                jsonPrinter = new JsonStreamPrettyPrinter(out, ConsoleOutput.ANSI_ENABLED);
+            }
+            byte[] chunk = new byte[8192];
+            while (iterator.hasNext()) {
+                final ByteBuf byteBuf = (ByteBuf) iterator.next();
+                try {
+                    final int length = byteBuf.readableBytes();
+                    total += length;
+                    if (jsonPrinter != null) {
+                        if (byteBuf.hasArray()) {
+                            jsonPrinter.write(byteBuf.array(), byteBuf.arrayOffset() + byteBuf.readerIndex(), length);
+                        } else {
+                            if (chunk.length < length) {
+                                chunk = new byte[length];
                             }
+                            byteBuf.getBytes(byteBuf.readerIndex(), chunk, 0, length);
+                            jsonPrinter.write(chunk, 0, length);
                         }
-                    }).switchIfEmpty(Mono.create(sink -> {
-                        final String javaScriptTestCode = httpRequest.getJavaScriptTestCode();
-                        if (javaScriptTestCode != null && !javaScriptTestCode.isEmpty()) {
-                            System.out.println();
-                            System.out.println("============Execute JS Test============");
-                            final String jsTestOutput = Nodejs.executeHttpClientCode(javaScriptTestCode, httpStatus.code(), httpResponseHeaders, contentType, "");
-                            System.out.println(jsTestOutput);
-                        }
-                        sink.success();
-                    }));
-                }).block();
-        //noinspection ConstantConditions
-        return bytes == null ? Collections.emptyList() : List.of(bytes);
+                    } else if (printable || System.console() == null) {
+                        byteBuf.getBytes(byteBuf.readerIndex(), out, length);
+                    }
+                } finally {
+                    byteBuf.release();
+                }
+            }
+            if (jsonPrinter != null) {
+                jsonPrinter.close();
+            }
+            out.flush();
+        } catch (IOException e) {
+            log.error("HTX-100-501", e);
+        }
+        return total;
     }
 }
@@ -0,0 +1,122 @@
+package org.mvnsearch.http.protocol;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.util.AttributeKey;
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import org.jetbrains.annotations.Nullable;
+import org.mvnsearch.http.utils.DurationUtils;
+import reactor.netty.http.Http2SslContextSpec;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.transport.ProxyProvider;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * process-wide http clients keyed by protocol and proxy/TLS settings, and all clients share one pooled connection provider.
+ * HTTP/2 clients negotiate H2 by ALPN over TLS or H2C by upgrade over plain text, with fallback to HTTP/1.1,
+ * and concurrent requests to same host are multiplexed as streams over pooled connections.
+ * <p>
+ * pool settings from system properties: httpx.maxConnections, httpx.maxIdleTime(30s), httpx.keepAlive(true), httpx.tlsVerify(false)
+ *
+ * @author linux_china
+ */
+public class HttpClientRegistry {
+    /**
+     * System.nanoTime() of channel active, and it's absent for channel of pooled connection acquired again
+     */
+    public static final AttributeKey<Long> CHANNEL_ACTIVE = AttributeKey.valueOf("httpx.channelActive");
+    private static final Map<ClientKey, HttpClient> CLIENTS = new ConcurrentHashMap<>();
+    private static volatile ConnectionProvider connectionProvider = null;
+
+    record ClientKey(HttpProtocol protocol, @Nullable String proxyHost, int proxyPort, boolean keepAlive, boolean tlsVerify) {
+    }
+
+    public static HttpClient httpClient() {
+        return httpClient(HttpProtocol.HTTP11);
+    }
+
+    /**
+     * http client for protocol
+     *
+     * @param protocol HTTP11, H2 for https or H2C for http
+     * @return http client
+     */
+    public static HttpClient httpClient(HttpProtocol protocol) {
+        final String proxyHost = System.getProperty("http.proxyHost");
+        final int proxyPort = proxyHost == null ? 0 : Integer.parseInt(System.getProperty("http.proxyPort"));
+        final boolean keepAlive = !"false".equalsIgnoreCase(System.getProperty("httpx.keepAlive"));
+        final boolean tlsVerify = "true".equalsIgnoreCase(System.getProperty("httpx.tlsVerify"));
+        return CLIENTS.computeIfAbsent(new ClientKey(protocol, proxyHost, proxyPort, keepAlive, tlsVerify), HttpClientRegistry::createHttpClient);
+    }
+
+    public static ConnectionProvider connectionProvider() {
+        if (connectionProvider == null) {
+            synchronized (HttpClientRegistry.class) {
+                if (connectionProvider == null) {
+                    final ConnectionProvider.Builder builder = ConnectionProvider.builder("httpx")
+                            .maxConnections(Integer.getInteger("httpx.maxConnections", ConnectionProvider.DEFAULT_POOL_MAX_CONNECTIONS))
+                            .pendingAcquireMaxCount(-1)
+                            .maxIdleTime(DurationUtils.parse(System.getProperty("httpx.maxIdleTime", "30s")));
+                    connectionProvider = builder.build();
+                }
+            }
+        }
+        return connectionProvider;
+    }
+
+    /**
+     * dispose pooled connections, and clients will be created again on next call
+     */
+    public static synchronized void dispose() {
+        CLIENTS.clear();
+        if (connectionProvider != null) {
+            connectionProvider.disposeLater().block(Duration.ofSeconds(5));
+            connectionProvider = null;
+        }
+    }
+
+    private static HttpClient createHttpClient(ClientKey key) {
+        // Accept-Encoding: gzip with decompression of body chunks as they arrive
+        HttpClient httpClient = HttpClient.create(connectionProvider()).keepAlive(key.keepAlive()).compress(true)
+                // one channel init handler for all requests, and per-request observer would create a connection pool per request
+                .doOnChannelInit((observer, channel, remoteAddress) -> channel.pipeline().addFirst("httpx.timings", new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+                        ctx.channel().attr(CHANNEL_ACTIVE).set(System.nanoTime());
+                        ctx.pipeline().remove(this);
+                        super.channelActive(ctx);
+                    }
+                }));
+        if (key.protocol() != HttpProtocol.HTTP11) {
+            httpClient = httpClient.protocol(key.protocol(), HttpProtocol.HTTP11);
+        }
+        if (!key.tlsVerify()) {
+            if (key.protocol() == HttpProtocol.H2) {
+                // ALPN with h2 and http/1.1
+                httpClient = httpClient.secure(sslContextSpec -> sslContextSpec.sslContext(Http2SslContextSpec.forClient()
+                        .configure(builder -> builder.trustManager(InsecureTrustManagerFactory.INSTANCE))));
+            } else {
+                httpClient = httpClient.secure(sslContextSpec -> {
+                    try {
+                        sslContextSpec.sslContext(SslContextBuilder.forClient().trustManager(InsecureTrustManagerFactory.INSTANCE).build());
+                    } catch (Exception ignore) {
+
+                    }
+                });
+            }
+        }
+        if (key.proxyHost() != null) {
+            httpClient = httpClient.proxy(spec -> spec.type(ProxyProvider.Proxy.HTTP)
+                    .host(key.proxyHost())
+                    .port(key.proxyPort())
+                    .connectTimeoutMillis(20_000));
+        }
+        return httpClient;
+    }
+}
@@ -1,46 +1,144 @@
 package org.mvnsearch.http.protocol;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.mvnsearch.http.logging.HttpxErrorCodeLogger;
+import org.mvnsearch.http.logging.HttpxErrorCodeLoggerFactory;
 import org.mvnsearch.http.model.HttpCookie;
 import org.mvnsearch.http.model.HttpHeader;
 import org.mvnsearch.http.model.HttpRequest;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
 import reactor.netty.http.client.HttpClient;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
 import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 
 
 public class HttpExecutor extends HttpBaseExecutor {
+    private static final HttpxErrorCodeLogger log = HttpxErrorCodeLoggerFactory.getLogger(HttpExecutor.class);
     private static final List<String> IGNORED_HEADERS = List.of("x-json-type", "x-json-schema");
 
     public List<byte[]> execute(HttpRequest httpRequest) {
         final URI requestUri = httpRequest.getRequestTarget().getUri();
-        HttpClient client = httpClient().headers(httpHeaders -> {
+        final String httpMethod = httpRequest.getMethod().getName();
+        final ResponseCache responseCache = ResponseCache.open(httpRequest);
+        final ResponseCache.Entry cachedEntry = responseCache != null ? responseCache.lookup(httpRequest) : null;
+        if (cachedEntry != null && cachedEntry.isFresh()) {
+            System.out.println(httpMethod + " " + requestUri);
+            System.out.println();
+            return replay(responseCache, cachedEntry, requestUri, httpRequest);
+        }
+        // request body encoded by `Content-Encoding` header
+        final String contentEncoding = httpRequest.getHeader("Content-Encoding");
+        final boolean encodingRequired = contentEncoding != null && !contentEncoding.equalsIgnoreCase("identity");
+        if (encodingRequired && !isSupportedEncoding(contentEncoding)) {
+            log.error("HTX-100-502", contentEncoding);
+            httpRequest.setResponseError("Unsupported Content-Encoding: " + contentEncoding);
+            return Collections.emptyList();
+        }
+        // body already compressed by gzip, such as `< ./payload.json.gz`, is sent as it is
+        final boolean bodyEncoded = encodingRequired && !(isGzipEncoding(contentEncoding) && isGzipped(httpRequest));
+        // file body is streamed with fixed length, or chunked if encoded
+        final Path bodyFile = httpRequest.getBodyFile();
+        HttpClient client = httpClient(httpRequest).headers(httpHeaders -> {
             for (HttpHeader header : httpRequest.getHeaders()) {
                 String headerName = header.getName().toLowerCase();
                 if (!IGNORED_HEADERS.contains(headerName)
                         && !headerName.startsWith("x-args-")
-                        && !headerName.equals("x-body-name")) {
+                        && !headerName.equals("x-body-name")
+                        && !((bodyEncoded || bodyFile != null) && headerName.equals("content-length"))) {
                     httpHeaders.add(header.getName(), header.getValue());
                 }
             }
+            if (bodyFile != null && !bodyEncoded && isBodyMethod(httpMethod)) {
+                httpHeaders.set("Content-Length", httpRequest.getBodySize());
+            }
+            if (cachedEntry != null) {
+                cachedEntry.addValidators(httpHeaders);
+            }
         });
         if (httpRequest.containsTag("no-redirect")) {
-            client.followRedirect(false);
+            client = client.followRedirect(false);
         }
-        for (HttpCookie cookie : cookies(requestUri.getHost())) {
-            client.cookie(cookie.toNettyCookie());
+        for (HttpCookie cookie : cookies(requestUri)) {
+            client = client.cookie(cookie.toNettyCookie());
+        }
+        final Publisher<ByteBuf> requestBody;
+        if (bodyFile != null) {
+            requestBody = FileRequestBody.chunks(bodyFile, bodyEncoded ? contentEncoding : null);
+        } else {
+            requestBody = bodyEncoded ? encodedRequestBody(httpRequest, contentEncoding) : httpRequest.requestBody();
         }
-        final String httpMethod = httpRequest.getMethod().getName();
         HttpClient.ResponseReceiver<?> responseReceiver = switch (httpMethod) {
-            case "POST", "CHATGPT" -> client.post().send(httpRequest.requestBody());
-            case "PUT" -> client.put().send(httpRequest.requestBody());
+            case "POST", "CHATGPT" -> client.post().send(requestBody);
+            case "PUT" -> client.put().send(requestBody);
             case "DELETE" -> client.delete();
             case "HEAD" -> client.head();
             default -> client.get();
         };
         System.out.println(httpMethod + " " + requestUri);
         System.out.println();
-        return request(responseReceiver, requestUri, httpRequest);
+        return request(responseReceiver, requestUri, httpRequest, responseCache, cachedEntry);
+    }
+
+    private static boolean isBodyMethod(String httpMethod) {
+        return httpMethod.equals("POST") || httpMethod.equals("CHATGPT") || httpMethod.equals("PUT");
+    }
+
+    static boolean isSupportedEncoding(String contentEncoding) {
+        final String encoding = contentEncoding.trim().toLowerCase();
+        return encoding.equals("gzip") || encoding.equals("x-gzip") || encoding.equals("deflate");
     }
 
+    private static boolean isGzipEncoding(String contentEncoding) {
+        final String encoding = contentEncoding.trim().toLowerCase();
+        return encoding.equals("gzip") || encoding.equals("x-gzip");
+    }
+
+    /**
+     * body starts with gzip magic bytes `1f 8b`
+     */
+    static boolean isGzipped(HttpRequest httpRequest) {
+        byte[] head;
+        final Path bodyFile = httpRequest.getBodyFile();
+        if (bodyFile != null) {
+            try (InputStream in = Files.newInputStream(bodyFile)) {
+                head = in.readNBytes(2);
+            } catch (IOException e) {
+                return false;
+            }
+        } else {
+            head = httpRequest.getBodyBytes();
+        }
+        return head != null && head.length >= 2 && head[0] == (byte) 0x1f && head[1] == (byte) 0x8b;
+    }
+
+    private static Mono<ByteBuf> encodedRequestBody(HttpRequest httpRequest, String contentEncoding) {
+        return Mono.fromCallable(() -> {
+            final byte[] bodyBytes = httpRequest.getBodyBytes();
+            return bodyBytes == null || bodyBytes.length == 0 ? null : Unpooled.wrappedBuffer(encodeBody(bodyBytes, contentEncoding));
+        });
+    }
+
+    /**
+     * encode body with gzip or deflate(zlib format), and zstd or br is not available without native libraries
+     */
+    static byte[] encodeBody(byte[] body, String contentEncoding) throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream(Math.max(body.length / 4, 64));
+        final String encoding = contentEncoding.trim().toLowerCase();
+        try (OutputStream out = encoding.equals("deflate") ? new DeflaterOutputStream(bos) : new GZIPOutputStream(bos, 8192)) {
+            out.write(body);
+        }
+        return bos.toByteArray();
+    }
 }
@@ -0,0 +1,287 @@
+package org.mvnsearch.http.protocol;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaders;
+import org.jetbrains.annotations.Nullable;
+import org.msgpack.jackson.dataformat.MessagePackMapper;
+import org.mvnsearch.http.model.HttpRequest;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * opt-in response cache of GET requests with `--response-cache`, and entries are saved under `.idea/httpRequests/http-client.cache`
+ * next to cookie file. Fresh entry by `Cache-Control: max-age` or `Expires` is replayed without request, otherwise it's revalidated
+ * with `If-None-Match` and `If-Modified-Since`, and cached body is replayed on 304.
+ * Total size is bounded, and least recently used entries are evicted by last modified time of entry files.
+ *
+ * @author linux_china
+ */
+public class ResponseCache {
+    private static final int VERSION = 1;
+    private static final ObjectMapper MSGPACK_MAPPER = new MessagePackMapper();
+    private final Path cacheDir;
+    private final long maxSize;
+
+    private ResponseCache(Path cacheDir, long maxSize) {
+        this.cacheDir = cacheDir;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * open response cache for the request
+     *
+     * @param httpRequest http request
+     * @return cache, null if cache disabled, not GET request or `Cache-Control: no-store` in request
+     */
+    @Nullable
+    public static ResponseCache open(HttpRequest httpRequest) {
+        final String responseCache = System.getProperty("httpx.responseCache");
+        if (responseCache == null || !httpRequest.getMethod().getName().equals("GET")) {
+            return null;
+        }
+        final String cacheControl = httpRequest.getHeader("Cache-Control");
+        if (cacheControl != null && cacheControl.toLowerCase().contains("no-store")) {
+            return null;
+        }
+        final String httpFilePath = System.getProperty("http.file");
+        Path cacheDir;
+        if (httpFilePath != null) {
+            cacheDir = Path.of(httpFilePath).toAbsolutePath().getParent().resolve(".idea/httpRequests/http-client.cache");
+        } else {
+            cacheDir = Path.of(".idea/httpRequests/http-client.cache").toAbsolutePath();
+        }
+        return new ResponseCache(cacheDir, ResponseFileSink.parseSize(responseCache));
+    }
+
+    /**
+     * lookup entry for the request, and `Vary` request headers should be same
+     *
+     * @return entry, null if not found
+     */
+    @Nullable
+    public Entry lookup(HttpRequest httpRequest) {
+        final File file = entryFile(httpRequest).toFile();
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            final Entry entry = MSGPACK_MAPPER.readValue(file, Entry.class);
+            if (entry.version() != VERSION || !entry.uri().equals(uri(httpRequest))) {
+                return null;
+            }
+            for (Header varyHeader : entry.varyHeaders()) {
+                if (!Objects.equals(varyHeader.value(), httpRequest.getHeader(varyHeader.name()))) {
+                    return null;
+                }
+            }
+            final String cacheControl = httpRequest.getHeader("Cache-Control");
+            if (cacheControl != null && cacheControl.toLowerCase().contains("no-cache")) {
+                // revalidation required by request
+                return new Entry(entry.version(), entry.uri(), entry.status(), entry.headers(), entry.varyHeaders(), entry.body(), entry.storedAt(), 0);
+            }
+            return entry;
+        } catch (Exception ignore) {
+            // broken or incompatible entry is replaced by next response
+            return null;
+        }
+    }
+
+    /**
+     * store 200 response if it's cacheable: validator or freshness present, and no `no-store` in `Cache-Control`
+     */
+    public void store(HttpRequest httpRequest, int status, HttpHeaders responseHeaders, byte[] body) {
+        final String cacheControl = responseHeaders.get("Cache-Control");
+        if (status != 200 || (cacheControl != null && cacheControl.toLowerCase().contains("no-store"))) {
+            return;
+        }
+        final String vary = responseHeaders.get("Vary");
+        if (vary != null && vary.contains("*")) {
+            return;
+        }
+        final long maxAge = maxAge(responseHeaders);
+        if (maxAge <= 0 && !responseHeaders.contains("ETag") && !responseHeaders.contains("Last-Modified")) {
+            return;
+        }
+        List<Header> headers = new ArrayList<>();
+        responseHeaders.forEach(header -> headers.add(new Header(header.getKey(), header.getValue())));
+        List<Header> varyHeaders = new ArrayList<>();
+        if (vary != null) {
+            for (String name : vary.split(",")) {
+                final String headerName = name.trim();
+                if (!headerName.isEmpty()) {
+                    varyHeaders.add(new Header(headerName, httpRequest.getHeader(headerName)));
+                }
+            }
+        }
+        save(httpRequest, new Entry(VERSION, uri(httpRequest), status, headers, varyHeaders, body, System.currentTimeMillis(), maxAge));
+    }
+
+    /**
+     * refresh entry with headers of 304 response, and the refreshed entry is saved
+     *
+     * @return refreshed entry
+     */
+    public Entry refresh(HttpRequest httpRequest, Entry entry, HttpHeaders notModifiedHeaders) {
+        final HttpHeaders headers = entry.toHttpHeaders();
+        notModifiedHeaders.forEach(header -> headers.set(header.getKey(), header.getValue()));
+        List<Header> refreshedHeaders = new ArrayList<>();
+        headers.forEach(header -> refreshedHeaders.add(new Header(header.getKey(), header.getValue())));
+        final Entry refreshed = new Entry(VERSION, entry.uri(), entry.status(), refreshedHeaders, entry.varyHeaders(), entry.body(),
+                System.currentTimeMillis(), maxAge(headers));
+        save(httpRequest, refreshed);
+        return refreshed;
+    }
+
+    /**
+     * mark entry as recently used
+     */
+    public void touch(HttpRequest httpRequest) {
+        //noinspection ResultOfMethodCallIgnored
+        entryFile(httpRequest).toFile().setLastModified(System.currentTimeMillis());
+    }
+
+    private void save(HttpRequest httpRequest, Entry entry) {
+        try {
+            Files.createDirectories(cacheDir);
+            final Path tempFile = Files.createTempFile(cacheDir, "httpx", ".tmp");
+            Files.write(tempFile, MSGPACK_MAPPER.writeValueAsBytes(entry));
+            Files.move(tempFile, entryFile(httpRequest), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            evict();
+        } catch (Exception ignore) {
+            // cache is optional
+        }
+    }
+
+    /**
+     * evict least recently used entries until total size is under max size
+     */
+    private void evict() {
+        final File[] files = cacheDir.toFile().listFiles((dir, name) -> name.endsWith(".bin"));
+        if (files == null) {
+            return;
+        }
+        long totalSize = 0;
+        for (File file : files) {
+            totalSize += file.length();
+        }
+        if (totalSize <= maxSize) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            if (totalSize <= maxSize) {
+                break;
+            }
+            final long length = file.length();
+            if (file.delete()) {
+                totalSize -= length;
+            }
+        }
+    }
+
+    /**
+     * freshness lifetime in seconds: `max-age` of `Cache-Control`, or `Expires` minus `Date`, and 0 for `no-cache`
+     */
+    static long maxAge(HttpHeaders responseHeaders) {
+        final String cacheControl = responseHeaders.get("Cache-Control");
+        if (cacheControl != null) {
+            long maxAge = -1;
+            for (String directive : cacheControl.toLowerCase().split(",")) {
+                final String value = directive.trim();
+                if (value.equals("no-cache")) {
+                    return 0;
+                } else if (value.startsWith("max-age=")) {
+                    try {
+                        maxAge = Long.parseLong(value.substring(8).replace("\"", "").trim());
+                    } catch (NumberFormatException ignore) {
+                        return 0;
+                    }
+                }
+            }
+            if (maxAge >= 0) {
+                return maxAge;
+            }
+        }
+        final String expires = responseHeaders.get("Expires");
+        if (expires != null) {
+            try {
+                final ZonedDateTime expiresTime = ZonedDateTime.parse(expires, DateTimeFormatter.RFC_1123_DATE_TIME);
+                final String date = responseHeaders.get("Date");
+                final long now = date != null ? ZonedDateTime.parse(date, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond() : System.currentTimeMillis() / 1000;
+                return Math.max(expiresTime.toEpochSecond() - now, 0);
+            } catch (Exception ignore) {
+                // invalid date means already expired
+            }
+        }
+        return 0;
+    }
+
+    private Path entryFile(HttpRequest httpRequest) {
+        return cacheDir.resolve(sha256(uri(httpRequest)) + ".bin");
+    }
+
+    private static String uri(HttpRequest httpRequest) {
+        return httpRequest.getRequestTarget().getUri().toString();
+    }
+
+    private static String sha256(String text) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            return Integer.toHexString(text.hashCode());
+        }
+    }
+
+    public record Header(String name, @Nullable String value) {
+    }
+
+    /**
+     * cached response
+     *
+     * @param storedAt time of response or revalidation in milliseconds
+     * @param maxAge   freshness lifetime in seconds
+     */
+    public record Entry(int version, String uri, int status, List<Header> headers, List<Header> varyHeaders, byte[] body,
+                        long storedAt, long maxAge) {
+
+        @JsonIgnore
+        public boolean isFresh() {
+            return maxAge > 0 && System.currentTimeMillis() - storedAt < maxAge * 1000;
+        }
+
+        /**
+         * add `If-None-Match` and `If-Modified-Since` for revalidation, and validators from request are kept
+         */
+        public void addValidators(HttpHeaders requestHeaders) {
+            if (requestHeaders.contains("If-None-Match") || requestHeaders.contains("If-Modified-Since")) {
+                return;
+            }
+            for (Header header : headers) {
+                if (header.name().equalsIgnoreCase("ETag")) {
+                    requestHeaders.set("If-None-Match", header.value());
+                } else if (header.name().equalsIgnoreCase("Last-Modified")) {
+                    requestHeaders.set("If-Modified-Since", header.value());
+                }
+            }
+        }
+
+        public HttpHeaders toHttpHeaders() {
+            final HttpHeaders httpHeaders = new DefaultHttpHeaders(false);
+            for (Header header : headers) {
+                httpHeaders.add(header.name(), header.value());
+            }
+            return httpHeaders;
+        }
+    }
+}
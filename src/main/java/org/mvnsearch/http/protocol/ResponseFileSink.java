@@ -0,0 +1,196 @@
+package org.mvnsearch.http.protocol;
+
+import io.netty.buffer.ByteBuf;
+import org.jetbrains.annotations.Nullable;
+import org.mvnsearch.http.logging.HttpxErrorCodeLogger;
+import org.mvnsearch.http.logging.HttpxErrorCodeLoggerFactory;
+import org.mvnsearch.http.model.HttpRequest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * response redirect sink for `>> file` and `>>! file`: ByteBufs are written to FileChannel by gathering writes.
+ * Redirect file must be inside the directory of http file, and size is limited by `--max-redirect-size`.
+ *
+ * @author linux_china
+ */
+public class ResponseFileSink implements Closeable {
+    private static final HttpxErrorCodeLogger log = HttpxErrorCodeLoggerFactory.getLogger(ResponseFileSink.class);
+    private static final long DEFAULT_MAX_SIZE = 1024L * 1024 * 1024;
+    private final Path filePath;
+    private final String fileName;
+    private final FileChannel channel;
+    private final long maxSize;
+    private long size = 0;
+
+    private ResponseFileSink(Path filePath, String fileName, long maxSize) throws IOException {
+        this.filePath = filePath;
+        this.fileName = fileName;
+        this.maxSize = maxSize;
+        this.channel = FileChannel.open(filePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * open sink for response redirect of the request
+     *
+     * @param httpRequest http request
+     * @return sink, null if no redirect or request not from http file
+     */
+    @Nullable
+    public static ResponseFileSink open(HttpRequest httpRequest) {
+        final String redirectResponse = httpRequest.getRedirectResponse();
+        final String httpFile = System.getProperty("http.file");
+        // redirect is only available for http file, not for stdin or extension requests
+        if (redirectResponse == null || httpFile == null) {
+            return null;
+        }
+        final String[] parts = redirectResponse.trim().split("\\s+", 2);
+        if (parts.length < 2) {
+            return null;
+        }
+        final String fileName = parts[1].trim();
+        try {
+            final Path filePath = resolve(Path.of(httpFile).toAbsolutePath().getParent(), fileName, parts[0].equals(">>!"));
+            if (filePath == null) {
+                log.error("HTX-001-505", fileName);
+                return null;
+            }
+            return new ResponseFileSink(filePath, fileName, maxSize());
+        } catch (Exception e) {
+            log.error("HTX-001-500", fileName, e);
+            return null;
+        }
+    }
+
+    /**
+     * resolve redirect file in base directory, and a new file with `-N` suffix is used if file exists without overwrite
+     *
+     * @return file path, null if the file is outside base directory
+     */
+    @Nullable
+    static Path resolve(Path baseDir, String fileName, boolean overwrite) throws IOException {
+        final Path normalizedBaseDir = baseDir.toAbsolutePath().normalize();
+        Path filePath = normalizedBaseDir.resolve(fileName).normalize();
+        if (!filePath.startsWith(normalizedBaseDir) || filePath.equals(normalizedBaseDir)) {
+            return null;
+        }
+        final Path realBaseDir = normalizedBaseDir.toRealPath();
+        final Path parentDir = filePath.getParent();
+        // symbolic links should not lead outside: check the nearest existing ancestor before directories created
+        Path existingDir = parentDir;
+        while (!Files.exists(existingDir)) {
+            existingDir = existingDir.getParent();
+        }
+        if (!existingDir.toRealPath().startsWith(realBaseDir)) {
+            return null;
+        }
+        Files.createDirectories(parentDir);
+        if (!parentDir.toRealPath().startsWith(realBaseDir) || Files.isSymbolicLink(filePath)) {
+            return null;
+        }
+        if (!overwrite && Files.exists(filePath, LinkOption.NOFOLLOW_LINKS)) {
+            final String name = filePath.getFileName().toString();
+            final int dotIndex = name.lastIndexOf('.');
+            final String baseName = dotIndex > 0 ? name.substring(0, dotIndex) : name;
+            final String extension = dotIndex > 0 ? name.substring(dotIndex) : "";
+            int counter = 1;
+            do {
+                filePath = parentDir.resolve(baseName + "-" + counter + extension);
+                counter++;
+            } while (Files.exists(filePath, LinkOption.NOFOLLOW_LINKS));
+        }
+        return filePath;
+    }
+
+    private static long maxSize() {
+        final String maxRedirectSize = System.getProperty("httpx.maxRedirectSize");
+        return maxRedirectSize == null ? DEFAULT_MAX_SIZE : parseSize(maxRedirectSize);
+    }
+
+    /**
+     * parse size text, such as 1024, 512k, 100m, 2g
+     */
+    static long parseSize(String text) {
+        final String size = text.trim().toLowerCase();
+        final char unit = size.charAt(size.length() - 1);
+        final long factor = switch (unit) {
+            case 'k' -> 1024L;
+            case 'm' -> 1024L * 1024;
+            case 'g' -> 1024L * 1024 * 1024;
+            default -> 1L;
+        };
+        final String number = factor == 1L ? size : size.substring(0, size.length() - 1);
+        return Long.parseLong(number.trim()) * factor;
+    }
+
+    /**
+     * write readable bytes of ByteBuf without copy, and reader index is not changed
+     */
+    public void write(ByteBuf byteBuf) throws IOException {
+        final int length = byteBuf.readableBytes();
+        checkSize(length);
+        if (byteBuf.nioBufferCount() == 1) {
+            writeFully(new ByteBuffer[]{byteBuf.nioBuffer()}, length);
+        } else {
+            writeFully(byteBuf.nioBuffers(), length);
+        }
+    }
+
+    public void write(List<byte[]> content) throws IOException {
+        final ByteBuffer[] buffers = new ByteBuffer[content.size()];
+        long length = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.wrap(content.get(i));
+            length += buffers[i].remaining();
+        }
+        checkSize(length);
+        writeFully(buffers, length);
+    }
+
+    private void checkSize(long length) throws IOException {
+        if (size + length > maxSize) {
+            throw new IOException("Response size exceeds limit " + maxSize + " for redirect file: " + fileName);
+        }
+    }
+
+    private void writeFully(ByteBuffer[] buffers, long length) throws IOException {
+        long written = 0;
+        while (written < length) {
+            written += channel.write(buffers);
+        }
+        size += length;
+    }
+
+    /**
+     * written bytes
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * close channel and remove incomplete file
+     */
+    public void abort() {
+        try {
+            channel.close();
+            Files.deleteIfExists(filePath);
+        } catch (IOException ignore) {
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        System.out.println("---------------------------------");
+        System.out.println("Write to " + filePath + " successfully!");
+    }
+}
@@ -0,0 +1,132 @@
+package org.mvnsearch.http.utils;
+
+import picocli.CommandLine;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+/**
+ * stdout router: output from a thread with capture buffer goes into the buffer, others go to original stdout.
+ * If stdout is not a terminal, such as pipe or redirect, original stdout is buffered and flushed at request end, periodically and at exit.
+ *
+ * @author linux_china
+ */
+public class ConsoleOutput extends OutputStream {
+    /**
+     * ANSI enabled or not, and it's resolved once because `Ansi.AUTO.enabled()` checks console and environment for every call
+     */
+    public static final boolean ANSI_ENABLED = CommandLine.Help.Ansi.AUTO.enabled();
+    private static final boolean TERMINAL = System.console() != null;
+    private static final ThreadLocal<ByteArrayOutputStream> CAPTURE_BUFFER = new ThreadLocal<>();
+    private static PrintStream originalOut = null;
+
+    private ConsoleOutput() {
+    }
+
+    /**
+     * replace System.out with router, and it's safe to call multi times
+     */
+    public static synchronized void install() {
+        if (originalOut == null) {
+            if (TERMINAL) {
+                originalOut = System.out;
+            } else {
+                final PrintStream bufferedOut = new PrintStream(new BufferedOutputStream(System.out, 64 * 1024), false, StandardCharsets.UTF_8);
+                originalOut = bufferedOut;
+                Runtime.getRuntime().addShutdownHook(new Thread(bufferedOut::flush));
+                // flush for long-running subscribers, and it's cheap if nothing written
+                final Thread flusher = new Thread(() -> {
+                    while (true) {
+                        try {
+                            Thread.sleep(200);
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        bufferedOut.flush();
+                    }
+                }, "httpx-stdout-flusher");
+                flusher.setDaemon(true);
+                flusher.start();
+            }
+            System.setOut(new PrintStream(new ConsoleOutput(), TERMINAL, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * capture stdout output of the task in current thread
+     *
+     * @param task task
+     * @return output bytes
+     */
+    public static byte[] capture(Callable<?> task) throws Exception {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        CAPTURE_BUFFER.set(buffer);
+        try {
+            task.call();
+        } finally {
+            CAPTURE_BUFFER.remove();
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * capture stdout output of the task in current thread, and output before failure is kept with error text appended
+     *
+     * @param task    task
+     * @param onError error to text appended to output
+     * @return output bytes
+     */
+    public static byte[] capture(Callable<?> task, Function<Exception, String> onError) {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        CAPTURE_BUFFER.set(buffer);
+        try {
+            task.call();
+        } catch (Exception e) {
+            buffer.writeBytes(onError.apply(e).getBytes(StandardCharsets.UTF_8));
+        } finally {
+            CAPTURE_BUFFER.remove();
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * write captured output to original stdout
+     *
+     * @param output output bytes
+     */
+    public static void flush(byte[] output) {
+        final PrintStream out = originalOut != null ? originalOut : System.out;
+        out.write(output, 0, output.length);
+        if (TERMINAL) {
+            out.flush();
+        }
+    }
+
+    private static OutputStream target() {
+        final ByteArrayOutputStream buffer = CAPTURE_BUFFER.get();
+        return buffer != null ? buffer : originalOut;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        target().write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        target().write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (CAPTURE_BUFFER.get() == null) {
+            originalOut.flush();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.mvnsearch.http.utils;
+
+import java.time.Duration;
+
+public class DurationUtils {
+
+    /**
+     * parse duration text, such as 500ms, 30s, 5m, 1h or 10(seconds)
+     *
+     * @param text duration text
+     * @return duration
+     */
+    public static Duration parse(String text) {
+        String value = text.trim().toLowerCase();
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        } else if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        } else if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        } else if (value.endsWith("h")) {
+            return Duration.ofHours(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+}
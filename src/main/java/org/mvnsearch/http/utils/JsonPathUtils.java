@@ -0,0 +1,208 @@
+package org.mvnsearch.http.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.PathNotFoundException;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JSONPath evaluation with compiled path cache. Simple path, such as `$.a.b`, `$.data.items[*].id` or `$['a'][0]`,
+ * is evaluated by Jackson streaming parser, and only matched values are materialized.
+ * Other paths(deep scan, filter, slice) fall back to Jayway JsonPath.
+ *
+ * @author linux_china
+ */
+public class JsonPathUtils {
+    private static final int MAX_CACHED_PATHS = 1024;
+    private static final Map<String, CompiledPath> COMPILED_PATHS = new ConcurrentHashMap<>();
+
+    /**
+     * read value by JSONPath, and the result is same as `JsonPath.read(json, path)`:
+     * value for definite path, list of matched values for path with wildcard
+     *
+     * @param json     json text
+     * @param jsonPath JSONPath
+     * @return value
+     * @throws PathNotFoundException definite path not found
+     */
+    public static Object read(String json, String jsonPath) throws IOException {
+        final CompiledPath compiledPath = compile(jsonPath);
+        if (compiledPath.steps() == null) {
+            return compiledPath.jsonPath().read(json);
+        }
+        try (JsonParser parser = JsonUtils.OBJECT_MAPPER.getFactory().createParser(json)) {
+            return compiledPath.read(parser);
+        }
+    }
+
+    public static Object read(byte[] json, String jsonPath) throws IOException {
+        final CompiledPath compiledPath = compile(jsonPath);
+        if (compiledPath.steps() == null) {
+            return compiledPath.jsonPath().read(new String(json, StandardCharsets.UTF_8));
+        }
+        try (JsonParser parser = JsonUtils.OBJECT_MAPPER.getFactory().createParser(json)) {
+            return compiledPath.read(parser);
+        }
+    }
+
+    static CompiledPath compile(String jsonPath) {
+        CompiledPath compiledPath = COMPILED_PATHS.get(jsonPath);
+        if (compiledPath == null) {
+            final List<Step> steps = parseSimplePath(jsonPath);
+            compiledPath = new CompiledPath(steps, steps == null ? JsonPath.compile(jsonPath) : null);
+            if (COMPILED_PATHS.size() >= MAX_CACHED_PATHS) {
+                COMPILED_PATHS.clear();
+            }
+            COMPILED_PATHS.put(jsonPath, compiledPath);
+        }
+        return compiledPath;
+    }
+
+    /**
+     * parse simple path with `.name`, `['name']`, `[index]`, `[*]` and `.*`
+     *
+     * @return steps, null if not simple path
+     */
+    @Nullable
+    static List<Step> parseSimplePath(String jsonPath) {
+        final String path = jsonPath.trim();
+        if (!path.startsWith("$")) {
+            return null;
+        }
+        List<Step> steps = new ArrayList<>();
+        int i = 1;
+        while (i < path.length()) {
+            final char c = path.charAt(i);
+            if (c == '.') {
+                int end = i + 1;
+                if (end < path.length() && path.charAt(end) == '*') {
+                    steps.add(new Step(null, -1));
+                    i = end + 1;
+                    continue;
+                }
+                while (end < path.length() && isNameChar(path.charAt(end))) {
+                    end++;
+                }
+                if (end == i + 1) { // deep scan or invalid name
+                    return null;
+                }
+                steps.add(new Step(path.substring(i + 1, end), -1));
+                i = end;
+            } else if (c == '[') {
+                final int end = path.indexOf(']', i);
+                if (end < 0) {
+                    return null;
+                }
+                final String selector = path.substring(i + 1, end).trim();
+                if (selector.equals("*")) {
+                    steps.add(new Step(null, -1));
+                } else if (selector.length() >= 2 && selector.charAt(0) == '\'' && selector.charAt(selector.length() - 1) == '\'') {
+                    final String name = selector.substring(1, selector.length() - 1);
+                    if (name.contains("'")) { // union of names
+                        return null;
+                    }
+                    steps.add(new Step(name, -1));
+                } else if (!selector.isEmpty() && selector.chars().allMatch(Character::isDigit)) {
+                    steps.add(new Step(null, Integer.parseInt(selector)));
+                } else { // filter, slice, negative index or union
+                    return null;
+                }
+                i = end + 1;
+            } else {
+                return null;
+            }
+        }
+        return steps;
+    }
+
+    private static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '$';
+    }
+
+    /**
+     * path step: field name, array index, or wildcard if both name and index absent
+     */
+    record Step(@Nullable String name, int index) {
+        boolean isWildcard() {
+            return name == null && index < 0;
+        }
+    }
+
+    record CompiledPath(@Nullable List<Step> steps, @Nullable JsonPath jsonPath) {
+
+        boolean isDefinite() {
+            for (Step step : steps) {
+                if (step.isWildcard()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        Object read(JsonParser parser) throws IOException {
+            if (parser.nextToken() == null) {
+                throw new PathNotFoundException("Empty JSON");
+            }
+            List<Object> matches = new ArrayList<>();
+            final boolean definite = isDefinite();
+            match(parser, 0, matches, definite);
+            if (definite) {
+                if (matches.isEmpty()) {
+                    throw new PathNotFoundException("No results for path: " + this.steps);
+                }
+                return matches.get(0);
+            }
+            return matches;
+        }
+
+        /**
+         * match steps from current value of parser, and parser is at last token of the value after match
+         *
+         * @return stop or not, and definite path stops after first match
+         */
+        private boolean match(JsonParser parser, int stepIndex, List<Object> matches, boolean definite) throws IOException {
+            if (stepIndex == steps.size()) {
+                matches.add(JsonUtils.OBJECT_MAPPER.readValue(parser, Object.class));
+                return definite;
+            }
+            final Step step = steps.get(stepIndex);
+            final JsonToken token = parser.currentToken();
+            if (token == JsonToken.START_OBJECT && step.index() < 0) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final boolean matched = step.isWildcard() || step.name().equals(parser.getCurrentName());
+                    parser.nextToken();
+                    if (matched) {
+                        if (match(parser, stepIndex + 1, matches, definite)) {
+                            return true;
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else if (token == JsonToken.START_ARRAY && step.name() == null) {
+                int index = 0;
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (step.isWildcard() || step.index() == index) {
+                        if (match(parser, stepIndex + 1, matches, definite)) {
+                            return true;
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                    index++;
+                }
+            } else {
+                parser.skipChildren();
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.mvnsearch.http.utils;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * incremental JSON pretty printer: bytes are fed chunk by chunk to non-blocking parser, and tokens are copied to generator,
+ * so memory is bounded by the largest token instead of the whole document. Raw bytes are written if the JSON is malformed.
+ *
+ * @author linux_china
+ */
+public class JsonStreamPrettyPrinter implements Closeable {
+    private static final JsonFactory PLAIN_FACTORY = new JsonFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    private static final JsonFactory COLOR_FACTORY = new JsonColorFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    private final OutputStream out;
+    private final JsonParser parser;
+    private final JsonGenerator generator;
+    private long fedBytes = 0;
+    private boolean raw = false;
+
+    public JsonStreamPrettyPrinter(OutputStream out, boolean color) throws IOException {
+        this.out = out;
+        this.parser = PLAIN_FACTORY.createNonBlockingByteArrayParser();
+        this.generator = (color ? COLOR_FACTORY : PLAIN_FACTORY).createGenerator(out, JsonEncoding.UTF8);
+        if (!color) {
+            this.generator.useDefaultPrettyPrinter();
+        }
+    }
+
+    /**
+     * feed next chunk, and the chunk is consumed before return
+     */
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (raw) {
+            out.write(bytes, offset, length);
+            return;
+        }
+        ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).feedInput(bytes, offset, offset + length);
+        try {
+            drain();
+            fedBytes += length;
+        } catch (JsonProcessingException e) {
+            // malformed JSON: keep formatted output, and write the rest as it is
+            raw = true;
+            generator.flush();
+            final long consumed = parser.getCurrentLocation().getByteOffset() - fedBytes;
+            final int skip = (int) Math.max(0, Math.min(length, consumed));
+            out.write(bytes, offset + skip, length - skip);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!raw) {
+            ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).endOfInput();
+            try {
+                drain();
+            } catch (JsonProcessingException ignore) {
+                // truncated JSON
+            }
+        }
+        generator.flush();
+        parser.close();
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            generator.copyCurrentEvent(parser);
+        }
+    }
+}
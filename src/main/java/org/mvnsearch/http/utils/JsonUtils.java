@@ -5,7 +5,6 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import picocli.CommandLine;
 
 import java.io.File;
 import java.io.IOException;
@@ -25,6 +24,7 @@ public class JsonUtils {
             .configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, true)
             .configure(JsonParser.Feature.ALLOW_COMMENTS, true)
             .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    private static final ObjectMapper COLOR_OBJECT_MAPPER = new ObjectMapper(new JsonColorFactory());
 
     public static String writeValueAsString(Object obj) {
         try {
@@ -82,12 +82,11 @@ public class JsonUtils {
     }
 
     public static String writeValueAsPrettyColorString(Object obj) {
-        if (!CommandLine.Help.Ansi.AUTO.enabled()) {
+        if (!ConsoleOutput.ANSI_ENABLED) {
             return writeValueAsPrettyString(obj);
         }
         try {
-            ObjectMapper objectMapper = new ObjectMapper(new JsonColorFactory());
-            return objectMapper.writeValueAsString(obj);
+            return COLOR_OBJECT_MAPPER.writeValueAsString(obj);
         } catch (Exception e) {
             return "";
         }
@@ -0,0 +1,253 @@
+package org.mvnsearch.http.utils;
+
+import org.jetbrains.annotations.Nullable;
+import org.mvnsearch.http.model.HttpRequest;
+import org.mvnsearch.http.model.HttpTimings;
+import org.mvnsearch.http.vendor.JavaScriptEngine;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * machine-readable report of executed requests for CI: JSON lines or JUnit XML.
+ * Records are written incrementally by buffered writer and flushed every second by a daemon thread.
+ * JUnit test cases are written to `report.xml.part` first, and the report with counts of `<testsuite>` is assembled on close.
+ * Report is closed by shutdown hook if run aborted by `System.exit` or Ctrl-C, and `.part` file is left only if JVM killed.
+ *
+ * @author linux_china
+ */
+public class RunReport implements Closeable {
+    public static final String JSONL = "jsonl";
+    public static final String JUNIT = "junit";
+    private static final long FLUSH_INTERVAL_MILLIS = 1000;
+    private final String format;
+    private final Path reportFile;
+    @Nullable
+    private final Path partFile;
+    private final BufferedWriter writer;
+    private final String timestamp = Instant.now().toString();
+    private final Thread shutdownHook = new Thread(this::closeQuietly);
+    private final Thread flusher = new Thread(this::flushPeriodically, "httpx-report-flusher");
+    private boolean closed = false;
+    private int tests = 0;
+    private int failures = 0;
+    private int errors = 0;
+    private double seconds = 0;
+
+    private RunReport(String format, Path reportFile, @Nullable Path partFile) throws IOException {
+        this.format = format;
+        this.reportFile = reportFile;
+        this.partFile = partFile;
+        this.writer = Files.newBufferedWriter(partFile != null ? partFile : reportFile, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * open report file
+     *
+     * @param format   jsonl or junit
+     * @param filePath report file, and default is httpx-report.jsonl or httpx-report.xml
+     * @return report
+     */
+    public static RunReport open(String format, @Nullable String filePath) throws IOException {
+        final String reportFormat = format.toLowerCase();
+        if (!reportFormat.equals(JSONL) && !reportFormat.equals(JUNIT)) {
+            throw new IllegalArgumentException("Report format should be jsonl or junit: " + format);
+        }
+        if (filePath == null) {
+            filePath = reportFormat.equals(JSONL) ? "httpx-report.jsonl" : "httpx-report.xml";
+        }
+        final Path reportFile = Path.of(filePath);
+        final Path partFile = reportFormat.equals(JUNIT) ? reportFile.resolveSibling(reportFile.getFileName() + ".part") : null;
+        final RunReport report = new RunReport(reportFormat, reportFile, partFile);
+        report.flusher.setDaemon(true);
+        report.flusher.start();
+        Runtime.getRuntime().addShutdownHook(report.shutdownHook);
+        return report;
+    }
+
+    /**
+     * record executed request
+     *
+     * @param httpRequest   executed request
+     * @param elapsedMillis elapsed time in milliseconds
+     * @param error         error from execution
+     */
+    public synchronized void record(HttpRequest httpRequest, double elapsedMillis, @Nullable Throwable error) {
+        final Map<String, Object> record = toRecord(httpRequest, elapsedMillis, error);
+        try {
+            if (format.equals(JSONL)) {
+                writer.write(JsonUtils.writeValueAsString(record));
+                writer.write('\n');
+            } else {
+                writeTestCases(httpRequest, record);
+            }
+        } catch (IOException ignore) {
+            // report should not break requests
+        }
+    }
+
+    static Map<String, Object> toRecord(HttpRequest httpRequest, double elapsedMillis, @Nullable Throwable error) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("timestamp", Instant.now().toString());
+        record.put("name", httpRequest.getName());
+        record.put("method", httpRequest.getMethod().getName());
+        String uri = null;
+        try {
+            uri = httpRequest.getRequestTarget().getUri().toString();
+        } catch (Exception ignore) {
+            // request target not parsed
+        }
+        record.put("uri", uri);
+        final Integer status = httpRequest.getResponseStatus();
+        record.put("status", status);
+        record.put("requestBytes", httpRequest.getBodySize());
+        record.put("responseBytes", httpRequest.getResponseBytes() >= 0 ? httpRequest.getResponseBytes() : null);
+        record.put("durationMs", Math.round(elapsedMillis * 100) / 100.0);
+        final HttpTimings timings = httpRequest.getTimings();
+        record.put("timings", timings == null ? null : timings.toMap());
+        List<Map<String, Object>> tests = new ArrayList<>();
+        boolean testsPassed = true;
+        if (httpRequest.getTestCases() != null) {
+            for (JavaScriptEngine.TestCase testCase : httpRequest.getTestCases()) {
+                Map<String, Object> test = new LinkedHashMap<>();
+                test.put("name", testCase.name());
+                test.put("passed", testCase.passed());
+                test.put("message", testCase.message());
+                tests.add(test);
+                testsPassed = testsPassed && testCase.passed();
+            }
+        }
+        record.put("tests", tests);
+        String errorMessage = null;
+        if (error != null) {
+            errorMessage = error.getClass().getSimpleName() + ": " + error.getMessage();
+        } else {
+            errorMessage = httpRequest.getResponseError();
+        }
+        record.put("error", errorMessage);
+        record.put("success", errorMessage == null && httpRequest.isResponseSuccessful() && testsPassed);
+        return record;
+    }
+
+    /**
+     * request as test case, and JS tests of request as test cases with request name as class name
+     */
+    private void writeTestCases(HttpRequest httpRequest, Map<String, Object> record) throws IOException {
+        final String className = "httpx." + escapeXml(httpRequest.getName());
+        final double requestSeconds = (Double) record.get("durationMs") / 1000.0;
+        final String time = String.valueOf(requestSeconds);
+        seconds += requestSeconds;
+        tests++;
+        writer.write("  <testcase classname=\"" + className + "\" name=\"" + escapeXml(record.get("method") + " " + record.get("uri")) + "\" time=\"" + time + "\">");
+        final Object error = record.get("error");
+        final Object status = record.get("status");
+        if (error != null) {
+            writer.write("<error message=\"" + escapeXml(error.toString()) + "\"/>");
+            errors++;
+        } else if (status instanceof Integer code && code >= 400) {
+            failures++;
+            writer.write("<failure message=\"Status: " + code + "\"/>");
+        }
+        writer.write("</testcase>\n");
+        if (httpRequest.getTestCases() != null) {
+            for (JavaScriptEngine.TestCase testCase : httpRequest.getTestCases()) {
+                writer.write("  <testcase classname=\"" + className + "\" name=\"" + escapeXml(testCase.name()) + "\" time=\"0\">");
+                tests++;
+                if (!testCase.passed()) {
+                    failures++;
+                    writer.write("<failure message=\"" + escapeXml(String.valueOf(testCase.message())) + "\"/>");
+                }
+                writer.write("</testcase>\n");
+            }
+        }
+    }
+
+    private static String escapeXml(String text) {
+        StringBuilder builder = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            switch (c) {
+                case '<' -> builder.append("&lt;");
+                case '>' -> builder.append("&gt;");
+                case '&' -> builder.append("&amp;");
+                case '"' -> builder.append("&quot;");
+                case '\'' -> builder.append("&apos;");
+                default -> {
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * flush by timer, and flush per request would be a write system call per iteration in load mode
+     */
+    private void flushPeriodically() {
+        while (true) {
+            try {
+                Thread.sleep(FLUSH_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                try {
+                    writer.flush();
+                } catch (IOException ignore) {
+                    // report should not break requests
+                }
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException ignore) {
+            // JVM is exiting
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        flusher.interrupt();
+        if (Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException ignore) {
+                // shutdown in progress
+            }
+        }
+        writer.close();
+        if (partFile != null) {
+            try (BufferedWriter out = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8);
+                 Reader in = Files.newBufferedReader(partFile, StandardCharsets.UTF_8)) {
+                out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+                out.write("<testsuite name=\"httpx\" tests=\"" + tests + "\" failures=\"" + failures + "\" errors=\"" + errors
+                        + "\" time=\"" + Math.round(seconds * 1000) / 1000.0 + "\" timestamp=\"" + timestamp + "\">\n");
+                in.transferTo(out);
+                out.write("</testsuite>\n");
+            }
+            Files.delete(partFile);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+// noinspection JSUnusedLocalSymbols
+// stub objects for embedded JavaScript engine, and `__httpx` is the host object from JVM
+
+function ContentType(mimeType) {
+    this.mimeType = mimeType;
+    this.charset = "utf-8";
+}
+
+function ResponseHeaders(store) {
+    this.store = store || {};
+}
+
+ResponseHeaders.prototype.valueOf = function (headerName) {
+    return this.store[headerName];
+};
+
+ResponseHeaders.prototype.valuesOf = function (headerName) {
+    var value = this.store[headerName];
+    if (value == null) {
+        return [];
+    } else if (!Array.isArray(value)) {
+        return [value];
+    } else {
+        return value;
+    }
+};
+
+function HttpResponse(status, contentType, headers, bodyText) {
+    this.status = status;
+    this.headers = new ResponseHeaders(headers);
+    if (typeof contentType === "string") {
+        var parts = contentType.split(";");
+        this.contentType = new ContentType(parts[0]);
+        if (parts.length > 1) {
+            this.contentType.charset = parts[1];
+        }
+    }
+    this.body = bodyText;
+    if (this.contentType !== undefined && this.contentType.mimeType.indexOf("json") >= 0) {
+        try {
+            this.body = JSON.parse(bodyText);
+        } catch (e) {
+            this.body = bodyText;
+        }
+    }
+}
+
+function __toText(message) {
+    if (message === undefined || message === null) {
+        return String(message);
+    } else if (typeof message === "object") {
+        return JSON.stringify(message);
+    }
+    return String(message);
+}
+
+var console = {
+    log: function () {
+        var texts = [];
+        for (var i = 0; i < arguments.length; i++) {
+            texts.push(__toText(arguments[i]));
+        }
+        __httpx.print(texts.join(" "));
+    },
+    error: function (message) {
+        __httpx.printError(__toText(message));
+    },
+    assert: function (condition, message) {
+        if (!condition) {
+            __httpx.printError("Assertion failed: " + __toText(message));
+        }
+    }
+};
+
+var __EXIT = {};
+
+var client = {
+    global: {
+        set: function (varName, varValue) {
+            __httpx.globalSet(varName, varValue == null ? null : String(varValue));
+        },
+        get: function (varName) {
+            return __httpx.globalGet(varName);
+        },
+        isEmpty: function () {
+            return __httpx.globalIsEmpty();
+        },
+        clear: function (varName) {
+            __httpx.globalClear(varName);
+        },
+        clearAll: function () {
+            __httpx.globalClearAll();
+        }
+    },
+    __currentTest: null,
+    test: function (testName, func) {
+        var result = {name: testName, passed: true, message: null};
+        this.__currentTest = result;
+        try {
+            func();
+        } catch (e) {
+            if (e === __EXIT) {
+                throw e;
+            }
+            result.passed = false;
+            result.message = String(e);
+            console.log("Test '" + testName + "' failed: " + e);
+        } finally {
+            this.__currentTest = null;
+            __httpx.addTest(result.name, result.passed, result.message);
+        }
+    },
+    log: function (message) {
+        console.log(message);
+    },
+    assert: function (condition, message) {
+        console.assert(condition, message);
+        if (!condition && this.__currentTest) {
+            this.__currentTest.passed = false;
+            this.__currentTest.message = message;
+        }
+    },
+    exit: function () {
+        throw __EXIT;
+    }
+};
+
+var request = {
+    variables: {
+        set: function (varName, varValue) {
+            __httpx.setVariable(varName, varValue == null ? null : String(varValue));
+        }
+    }
+};
+
+function DigestBuilder(builder) {
+    this.builder = builder;
+}
+
+DigestBuilder.prototype.updateWithText = function (textInput, encoding) {
+    this.builder.updateWithText(textInput, encoding || "utf-8");
+    return this;
+};
+
+DigestBuilder.prototype.updateWithHex = function (hexInput) {
+    this.builder.updateWithHex(hexInput);
+    return this;
+};
+
+DigestBuilder.prototype.updateWithBase64 = function (base64Input, urlSafe) {
+    this.builder.updateWithBase64(base64Input, !!urlSafe);
+    return this;
+};
+
+DigestBuilder.prototype.digest = function () {
+    var digest = this.builder.digest();
+    return {
+        toHex: function () {
+            return digest.toHex();
+        },
+        toBase64: function (urlSafe) {
+            return digest.toBase64(!!urlSafe);
+        }
+    };
+};
+
+function HmacInitializer(name) {
+    this.name = name;
+}
+
+HmacInitializer.prototype.withTextSecret = function (textSecret, encoding) {
+    return new DigestBuilder(__httpx.hmacWithText(this.name, textSecret, encoding || "utf-8"));
+};
+
+HmacInitializer.prototype.withHexSecret = function (hexSecret) {
+    return new DigestBuilder(__httpx.hmacWithHex(this.name, hexSecret));
+};
+
+HmacInitializer.prototype.withBase64Secret = function (base64Secret, urlSafe) {
+    return new DigestBuilder(__httpx.hmacWithBase64(this.name, base64Secret, !!urlSafe));
+};
+
+var crypto = {
+    sha1: function () {
+        return new DigestBuilder(__httpx.hash("sha1"));
+    },
+    sha256: function () {
+        return new DigestBuilder(__httpx.hash("sha256"));
+    },
+    sha512: function () {
+        return new DigestBuilder(__httpx.hash("sha512"));
+    },
+    md5: function () {
+        return new DigestBuilder(__httpx.hash("md5"));
+    },
+    hmac: {
+        sha1: function () {
+            return new HmacInitializer("sha1");
+        },
+        sha256: function () {
+            return new HmacInitializer("sha256");
+        },
+        sha512: function () {
+            return new HmacInitializer("sha512");
+        },
+        md5: function () {
+            return new HmacInitializer("md5");
+        }
+    }
+};
+
+function __run(code) {
+    try {
+        code();
+    } catch (e) {
+        if (e !== __EXIT) {
+            throw e;
+        }
+    }
+}
@@ -123,10 +123,13 @@ class HttpResponse {
         }
     }
 
-    setBase64Body(base64Text) {
-        let bodyText = decodeURIComponent(Buffer.from(base64Text, 'base64').toString('utf-8'))
-        if (this.contentType.mimeType.indexOf("json") >= 0) {
-            this.body = JSON.parse(bodyText);
+    setBody(bodyText) {
+        if (this.contentType !== undefined && this.contentType.mimeType.indexOf("json") >= 0) {
+            try {
+                this.body = JSON.parse(bodyText);
+            } catch (e) {
+                this.body = bodyText;
+            }
         } else {
             this.body = bodyText;
         }
@@ -136,9 +139,25 @@ class HttpResponse {
 
 class HttpClient {
     global = new GlobalVariables();
+    tests = [];
+    currentTest = null;
 
     test(testName, func) {
-        func();
+        const result = {name: testName, passed: true};
+        this.tests.push(result);
+        this.currentTest = result;
+        try {
+            func();
+        } catch (e) {
+            if (typeof ExitSignal !== "undefined" && e instanceof ExitSignal) {
+                throw e;
+            }
+            result.passed = false;
+            result.message = String(e);
+            console.log(`Test '${testName}' failed: ${e}`);
+        } finally {
+            this.currentTest = null;
+        }
     }
 
     log(message) {
@@ -147,31 +166,13 @@ class HttpClient {
 
     assert(condition, message) {
         console.assert(condition, message);
+        if (!condition && this.currentTest) {
+            this.currentTest.passed = false;
+            this.currentTest.message = message;
+        }
     }
 
     exit() {
         process.exit(0)
     }
 }
-
-function encodeBody(plainText) {
-    return Buffer.from(encodeURIComponent(plainText)).toString('base64');
-}
-
-const statusCode = 222;
-const contentType = 'application/json';
-const headers = {'header': 'value'};
-const client = new HttpClient();
-const response = new HttpResponse(statusCode, contentType);
-response.setHeaders(headers);
-const base64Body = encodeBody({});
-response.setBase64Body(base64Body);
-
-/*
-client.test("Request executed successfully", function () {
-    client.log(response.status)
-    client.log(response.contentType)
-    client.log(response.body)
-});
-*/
-
@@ -0,0 +1,96 @@
+// noinspection JSUnusedLocalSymbols
+// httpx Node.js worker: appended after http-client-execute.js and http-client-pre-stub.js,
+// reads one JSON job per line from stdin and writes one JSON result per line to stdout
+const readline = require('readline');
+
+const writeFrame = process.stdout.write.bind(process.stdout);
+let output = "";
+// capture console output of the job, and stdout is reserved for result frames
+process.stdout.write = function (chunk, encoding, callback) {
+    output += chunk;
+    if (typeof encoding === "function") {
+        encoding();
+    } else if (typeof callback === "function") {
+        callback();
+    }
+    return true;
+};
+
+class ExitSignal {
+}
+
+// script is body of async function: `await` is allowed, and result is sent after returned promise settled.
+// callbacks not awaited by script, such as plain setTimeout(), are not waited for and their output or variables are lost
+const AsyncFunction = Object.getPrototypeOf(async function () {
+}).constructor;
+
+function runJob(job, done) {
+    const result = {id: job.id, ok: true};
+    const variables = {};
+    const jobClient = new HttpClient();
+    jobClient.exit = function () {
+        throw new ExitSignal();
+    };
+    const jobRequest = new HttpClientRequest();
+    jobRequest.variables = {
+        set(varName, varValue) {
+            variables[varName] = String(varValue);
+        },
+        get(varName) {
+            return variables[varName];
+        }
+    };
+    const onError = e => {
+        if (!(e instanceof ExitSignal)) {
+            result.ok = false;
+            result.error = (e && e.stack) ? e.stack : String(e);
+        }
+    };
+    output = "";
+    let pending;
+    try {
+        if (job.type === "pre") {
+            pending = new AsyncFunction("client", "request", "crypto", "require", job.code)(jobClient, jobRequest, crypto, require);
+        } else {
+            const response = new HttpResponse(job.statusCode, job.contentType || "text/plain");
+            response.setHeaders(job.headers || {});
+            response.setBody(job.body || "");
+            pending = new AsyncFunction("client", "response", "request", "crypto", "require", job.code)(jobClient, response, jobRequest, crypto, require);
+        }
+    } catch (e) {
+        // syntax error of script
+        onError(e);
+    }
+    Promise.resolve(pending).catch(onError).then(() => {
+        // let callbacks of settled promises run before result sent
+        setImmediate(() => {
+            result.output = output;
+            result.variables = variables;
+            result.tests = jobClient.tests;
+            output = "";
+            writeFrame(JSON.stringify(result) + "\n");
+            done();
+        });
+    });
+}
+
+// jobs are executed one by one to keep console output of each job separated
+const pendingJobs = [];
+let running = false;
+
+function runNextJob() {
+    if (!running && pendingJobs.length > 0) {
+        running = true;
+        runJob(pendingJobs.shift(), () => {
+            running = false;
+            runNextJob();
+        });
+    }
+}
+
+readline.createInterface({input: process.stdin}).on("line", line => {
+    if (line.trim().length > 0) {
+        pendingJobs.push(JSON.parse(line));
+        runNextJob();
+    }
+});
@@ -0,0 +1,46 @@
+package org.mvnsearch.http.load;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DataFileRowsTest {
+
+    @Test
+    public void testCsv() throws Exception {
+        String csv = "id,name,comment\n"
+                + "1,Jackie,\"hello, \"\"world\"\"\"\n"
+                + "2,Linux,\"multi\nline\"\n";
+        final List<Map<String, Object>> rows = readAll(DataFileRows.of(new BufferedReader(new StringReader(csv)), true));
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0)).containsEntry("id", "1").containsEntry("comment", "hello, \"world\"");
+        assertThat(rows.get(1)).containsEntry("name", "Linux").containsEntry("comment", "multi\nline");
+    }
+
+    @Test
+    public void testJsonLines() throws Exception {
+        String jsonl = """
+                {"id": 1, "name": "Jackie", "tags": ["a", "b"]}
+
+                {"id": 2, "name": "Linux", "email": null}
+                """;
+        final List<Map<String, Object>> rows = readAll(DataFileRows.of(new BufferedReader(new StringReader(jsonl)), false));
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0)).containsEntry("id", "1").containsEntry("tags", "[\"a\",\"b\"]");
+        assertThat(rows.get(1)).containsEntry("name", "Linux").containsEntry("email", "");
+    }
+
+    private List<Map<String, Object>> readAll(DataFileRows rows) throws Exception {
+        List<Map<String, Object>> result = new ArrayList<>();
+        try (rows) {
+            rows.forEachRemaining(result::add);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,32 @@
+package org.mvnsearch.http.load;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100_000; i++) {
+            histogram.recordValue(i);
+        }
+        assertThat(histogram.getTotalCount()).isEqualTo(100_000);
+        assertThat(histogram.getMinValue()).isEqualTo(1);
+        assertThat(histogram.getMaxValue()).isEqualTo(100_000);
+        assertThat((double) histogram.getValueAtPercentile(50)).isCloseTo(50_000, within(500.0));
+        assertThat((double) histogram.getValueAtPercentile(99)).isCloseTo(99_000, within(990.0));
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(100_000);
+    }
+
+    @Test
+    public void testBucketIndex() {
+        for (long value : new long[]{0, 1, 255, 256, 257, 1024, 65_535, 3_600_000_000L}) {
+            final long highest = LatencyHistogram.highestEquivalentValue(LatencyHistogram.bucketIndex(value));
+            assertThat(highest).isGreaterThanOrEqualTo(value);
+            assertThat((double) highest).isCloseTo(value, within(value / 100.0 + 1));
+        }
+    }
+}
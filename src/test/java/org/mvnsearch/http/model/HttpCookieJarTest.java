@@ -0,0 +1,39 @@
+package org.mvnsearch.http.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HttpCookieJarTest {
+
+    @Test
+    public void testSetCookieAndFlush(@TempDir Path baseDir) throws Exception {
+        final Path cookieFile = baseDir.resolve(".idea/httpRequests/http-client.cookies");
+        HttpCookieJar cookieJar = new HttpCookieJar(cookieFile);
+        cookieJar.load();
+        final URI loginUri = URI.create("https://api.example.com/auth/login");
+        cookieJar.addSetCookies(loginUri, List.of("session=abc; Path=/; Domain=example.com; Max-Age=3600",
+                "flow=1; Max-Age=3600",
+                "other=1; Domain=other.com"));
+        assertThat(cookieJar.cookies(URI.create("https://www.example.com/")))
+                .extracting(HttpCookie::getName).containsExactly("session");
+        assertThat(cookieJar.cookies(URI.create("https://api.example.com/auth/profile")))
+                .extracting(HttpCookie::getName).containsExactlyInAnyOrder("session", "flow");
+        cookieJar.addSetCookies(loginUri, List.of("flow=; Max-Age=0"));
+        assertThat(cookieJar.cookies(URI.create("https://api.example.com/auth/profile")))
+                .extracting(HttpCookie::getName).containsExactly("session");
+        cookieJar.flush();
+        assertThat(Files.readAllLines(cookieFile)).hasSize(2);
+        // reload from file
+        cookieJar = new HttpCookieJar(cookieFile);
+        cookieJar.load();
+        assertThat(cookieJar.cookies(URI.create("https://example.com/demo")))
+                .extracting(HttpCookie::getValue).containsExactly("abc");
+    }
+}
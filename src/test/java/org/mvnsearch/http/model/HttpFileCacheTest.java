@@ -0,0 +1,53 @@
+package org.mvnsearch.http.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HttpFileCacheTest {
+
+    @Test
+    public void testSaveAndLoad(@TempDir Path tempDir) throws Exception {
+        final String userHome = System.getProperty("user.home");
+        System.setProperty("user.home", tempDir.toString());
+        try {
+            String httpCode = """
+                    ### ip
+                    #@name myip
+                    GET https://httpbin.org/ip
+
+                    ### post
+                    POST https://httpbin.org/post
+                    Content-Type: application/json
+
+                    {"id": 1}
+                    """;
+            final Path httpFile = tempDir.resolve("index.http");
+            final Path envFile = tempDir.resolve("http-client.env.json");
+            Files.writeString(httpFile, httpCode);
+            final HttpFileCache httpFileCache = new HttpFileCache(httpFile, List.of(envFile));
+            assertThat(httpFileCache.load()).isNull();
+            httpFileCache.save(HttpRequestParser.splitRequests(httpCode), Map.of("dev", Map.of("host", "localhost")), Map.of());
+            final HttpFileCache.Entry entry = httpFileCache.load();
+            assertThat(entry).isNotNull();
+            assertThat(entry.context()).containsKey("dev");
+            final List<HttpRequest> requests = entry.toRequests(httpCode);
+            assertThat(requests).hasSize(2);
+            assertThat(requests.get(0).getName()).isEqualTo("myip");
+            assertThat(requests.get(1).getRequestLines()).containsExactly("POST https://httpbin.org/post", "Content-Type: application/json", "", "{\"id\": 1}");
+            // cache is keyed by context files too
+            assertThat(new HttpFileCache(httpFile, List.of(tempDir.resolve("other").resolve("http-client.env.json"))).load()).isNull();
+            // stale after env file created
+            Files.writeString(envFile, "{}");
+            assertThat(httpFileCache.load()).isNull();
+        } finally {
+            System.setProperty("user.home", userHome);
+        }
+    }
+}
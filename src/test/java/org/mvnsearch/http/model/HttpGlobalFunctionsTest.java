@@ -0,0 +1,53 @@
+package org.mvnsearch.http.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HttpGlobalFunctionsTest {
+    private final HttpGlobalFunctions functions = HttpGlobalFunctions.getInstance();
+
+    @Test
+    public void testConcurrentRandom() {
+        Set<String> emails = ConcurrentHashMap.newKeySet();
+        IntStream.range(0, 1000).parallel().forEach(i -> {
+            emails.add(functions.findFunction("random.email").apply(new String[]{}));
+            final int value = Integer.parseInt(functions.findFunction("randomInt").apply(new String[]{"5", "10"}));
+            assertThat(value).isBetween(5, 9);
+        });
+        assertThat(emails).hasSizeGreaterThan(990).allMatch(email -> email.endsWith("@example.com"));
+    }
+
+    @Test
+    public void testDatetime() {
+        assertThat(functions.findFunction("datetime").apply(new String[]{})).matches("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}Z");
+        assertThat(functions.findFunction("datetime").apply(new String[]{"'yyyy-MM-dd'"})).matches("\\d{4}-\\d{2}-\\d{2}");
+        assertThat(functions.findFunction("datetime").apply(new String[]{"rfc1123"}))
+                .matches("(Mon|Tue|Wed|Thu|Fri|Sat|Sun), \\d{2} [A-Z][a-z]{2} \\d{4} \\d{2}:\\d{2}:\\d{2} UTC");
+        assertThat(functions.findFunction("datetime").apply(new String[]{"iso8601"})).matches("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}\\+0000");
+    }
+
+    @Test
+    public void testFrozenClock() {
+        HttpGlobalFunctions.freezeClock();
+        try {
+            final String timestamp = functions.findFunction("timestamp").apply(new String[]{});
+            // custom pattern with SimpleDateFormat semantics: `u` is day number of week
+            assertThat(functions.findFunction("datetime").apply(new String[]{"'u'"})).matches("[1-7]");
+            assertThat(functions.findFunction("timestamp").apply(new String[]{})).isEqualTo(timestamp);
+        } finally {
+            HttpGlobalFunctions.unfreezeClock();
+        }
+    }
+
+    @Test
+    public void testRegisterFunction() {
+        functions.registerFunction("hello", args -> "Hello " + String.join(" ", args));
+        assertThat(HttpRequestParser.replaceVariables("{{$hello %name}}!", Map.of("name", "Jackie"))).isEqualTo("Hello Jackie!");
+    }
+}
@@ -0,0 +1,58 @@
+package org.mvnsearch.http.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class HttpRequestGraphTest {
+
+    @Test
+    public void testBuildAndExtract() throws Exception {
+        String httpFile = """
+                ### login
+                #@name login
+                POST https://httpbin.org/post
+
+                ### profile
+                #@name profile
+                GET https://httpbin.org/anything/{{login.response.body.$.json.id}}
+                Authorization: Bearer {{ login.response.headers.X-Token }}
+
+                ### ip
+                #@name myip
+                GET https://httpbin.org/ip
+                """;
+        final List<HttpRequest> requests = HttpRequestParser.splitRequests(httpFile);
+        final HttpRequestIndex requestIndex = new HttpRequestIndex(requests);
+        final HttpRequestGraph graph = HttpRequestGraph.build(requestIndex.find("profile"), requestIndex);
+        assertThat(graph.hasDependencies()).isTrue();
+        assertThat(graph.getRequests()).extracting(HttpRequest::getName).containsExactly("login", "profile");
+        final HttpRequest login = requests.get(0);
+        login.setResponseStatus(200);
+        login.setResponseHeaders(Map.of("x-token", "xxx.yyy"));
+        final Map<String, Object> values = graph.extractValues(login, "{\"json\": {\"id\": 1}}".getBytes(StandardCharsets.UTF_8));
+        assertThat(values).containsEntry("login.response.body.$.json.id", 1).containsEntry("login.response.headers.X-Token", "xxx.yyy");
+        assertThat(HttpRequestGraph.build(requestIndex.find("myip"), requestIndex).hasDependencies()).isFalse();
+    }
+
+    @Test
+    public void testCyclicDependencies() {
+        String httpFile = """
+                ### first
+                #@name first
+                GET https://httpbin.org/anything/{{second.response.status}}
+
+                ### second
+                #@name second
+                GET https://httpbin.org/anything/{{first.response.status}}
+                """;
+        final HttpRequestIndex requestIndex = new HttpRequestIndex(HttpRequestParser.splitRequests(httpFile));
+        assertThatThrownBy(() -> HttpRequestGraph.build(requestIndex.find("first"), requestIndex))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
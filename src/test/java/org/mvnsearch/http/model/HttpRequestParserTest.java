@@ -161,4 +161,88 @@ public class HttpRequestParserTest {
                 }""");
     }
 
+    @Test
+    public void testRequestIndex() {
+        @Language("HTTP Request")
+        String httpFile = """
+                ### first
+                # @name myip
+                GET https://httpbin.org/ip
+
+                ### second
+                POST https://httpbin.org/post
+                Content-Type: application/json
+
+                {}
+                """;
+        final HttpRequestIndex requestIndex = new HttpRequestIndex(HttpRequestParser.splitRequests(httpFile));
+        assertThat(requestIndex.find("MyIp")).hasSize(1).allMatch(request -> request.getIndex() == 1);
+        assertThat(requestIndex.find("2")).hasSize(1).allMatch(request -> request.getMethod().getName().equals("POST"));
+        assertThat(requestIndex.find("line:4")).hasSize(1).allMatch(request -> request.getIndex() == 1);
+        assertThat(requestIndex.find("line:7")).hasSize(1).allMatch(request -> request.getIndex() == 2);
+        assertThat(requestIndex.find("line:100")).isEmpty();
+        assertThat(requestIndex.find("unknown")).isEmpty();
+    }
+
+    @Test
+    public void testLazySplit() {
+        @Language("HTTP Request")
+        String httpFile = """
+                ### pre-script
+                < {%
+                    request.variables.set("id", "1");
+                %}
+                GET https://httpbin.org/anything/{{id}}
+                Accept: application/json
+
+                ### second
+                GET https://httpbin.org/ip
+                """;
+        final List<HttpRequest> requests = HttpRequestParser.splitRequests(httpFile);
+        assertThat(requests).hasSize(2);
+        assertThat(requests.get(0).getRequestLine()).isEqualTo("https://httpbin.org/anything/{{id}}");
+        assertThat(requests.get(0).getPreScriptLines()).containsExactly("< {%", "request.variables.set(\"id\", \"1\");", "%}");
+        assertThat(requests.get(0).getRequestLines()).containsExactly("GET https://httpbin.org/anything/{{id}}", "Accept: application/json", "");
+        assertThat(requests.get(1).getRequestLines()).containsExactly("GET https://httpbin.org/ip");
+    }
+
+    @Test
+    public void testCompiledTemplate() {
+        Map<String, Object> context = new HashMap<>();
+        context.put("host", "httpbin.org");
+        context.put("name", "linux_china");
+        final HttpTemplate template = HttpTemplate.compile("https://{{host}}/anything/{{$random.uuid}}?hash={{$md5 `%{name}`}}&code={{$base64 'abc 1234'}}");
+        assertThat(template.isConstant()).isFalse();
+        final String first = template.render(context);
+        assertThat(first).startsWith("https://httpbin.org/anything/").endsWith("&code=YWJjIDEyMzQ=");
+        assertThat(first).contains("?hash=" + HttpRequestParser.evaluateFunction("$md5 'linux_china'", context));
+        assertThat(template.render(context)).isNotEqualTo(first);
+    }
+
+    @Test
+    public void testRequestTemplate() {
+        @Language("HTTP Request")
+        String httpFile = """
+                ### post
+                POST https://httpbin.org/post
+                X-Request-Id: {{$uuid}}
+
+                {"name": "{{name}}"}
+                """;
+        final HttpRequest request = HttpRequestParser.splitRequests(httpFile).get(0);
+        final HttpRequestTemplate requestTemplate = HttpRequestTemplate.compile(request, Map.of("name", "linux_china"));
+        final HttpRequest first = requestTemplate.render();
+        final HttpRequest second = requestTemplate.render();
+        assertThat(first.getRequestLine()).isEqualTo("https://httpbin.org/post");
+        assertThat(first.getBodyLines()).containsExactly("{\"name\": \"linux_china\"}");
+        assertThat(first.getHeadersMap().get("X-Request-Id")).isNotEqualTo(second.getHeadersMap().get("X-Request-Id"));
+    }
+
+    @Test
+    public void testRequestLineProtocol() {
+        final HttpRequestTarget requestTarget = HttpRequestTarget.valueOf("GET", "https://httpbin.org/ip HTTP/2");
+        assertThat(requestTarget.getProtocol()).isEqualTo("HTTP/2");
+        assertThat(requestTarget.getUri().toString()).isEqualTo("https://httpbin.org/ip");
+        assertThat(HttpRequestTarget.valueOf("GET", "https://httpbin.org/ip").getProtocol()).isNull();
+    }
 }
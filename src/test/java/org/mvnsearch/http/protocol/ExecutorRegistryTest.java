@@ -0,0 +1,31 @@
+package org.mvnsearch.http.protocol;
+
+import org.junit.jupiter.api.Test;
+import org.mvnsearch.http.model.HttpMethod;
+import org.mvnsearch.http.model.HttpRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExecutorRegistryTest {
+
+    @Test
+    public void testGetExecutor() {
+        final BaseExecutor executor = ExecutorRegistry.getExecutor(request("GET"));
+        assertThat(executor).isInstanceOf(HttpExecutor.class);
+        assertThat(ExecutorRegistry.getExecutor(request("POST"))).isSameAs(executor);
+        assertThat(ExecutorRegistry.getExecutor(request("UNKNOWN"))).isNull();
+    }
+
+    @Test
+    public void testRequestLine() {
+        assertThat(HttpMethod.isRequestLine("GET https://httpbin.org/ip")).isTrue();
+        assertThat(HttpMethod.isRequestLine("GRAPHQLWS ws://localhost:8080/graphql")).isTrue();
+        assertThat(HttpMethod.isRequestLine("Content-Type: application/json")).isFalse();
+    }
+
+    private HttpRequest request(String method) {
+        final HttpRequest httpRequest = new HttpRequest(1);
+        httpRequest.setMethod(HttpMethod.valueOf(method));
+        return httpRequest;
+    }
+}
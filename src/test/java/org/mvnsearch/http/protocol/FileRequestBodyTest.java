@@ -0,0 +1,42 @@
+package org.mvnsearch.http.protocol;
+
+import io.netty.buffer.ByteBuf;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FileRequestBodyTest {
+
+    @Test
+    public void testChunks(@TempDir Path tempDir) throws Exception {
+        final Path bodyFile = tempDir.resolve("body.bin");
+        byte[] content = new byte[200 * 1024 + 7];
+        new Random(7).nextBytes(content);
+        Files.write(bodyFile, content);
+        assertThat(concat(FileRequestBody.chunks(bodyFile, null).collectList().block())).isEqualTo(content);
+        final byte[] gzipped = concat(FileRequestBody.chunks(bodyFile, "gzip").collectList().block());
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            assertThat(inputStream.readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    private static byte[] concat(List<ByteBuf> chunks) {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        for (ByteBuf chunk : chunks) {
+            byte[] bytes = new byte[chunk.readableBytes()];
+            chunk.readBytes(bytes);
+            chunk.release();
+            bos.writeBytes(bytes);
+        }
+        return bos.toByteArray();
+    }
+}
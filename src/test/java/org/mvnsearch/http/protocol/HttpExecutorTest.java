@@ -6,8 +6,11 @@ import org.junit.jupiter.api.Test;
 import org.mvnsearch.http.model.HttpRequest;
 import org.mvnsearch.http.model.HttpRequestParser;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -163,4 +166,21 @@ public class HttpExecutorTest {
         assertThat(request.getRedirectResponse()).isEqualTo(">>! demo.json");
         new HttpExecutor().execute(request);
     }
+
+    @Test
+    public void testEncodeBody() throws Exception {
+        final byte[] body = "{\"name\": \"linux_china\"}".repeat(100).getBytes(StandardCharsets.UTF_8);
+        final byte[] encoded = HttpExecutor.encodeBody(body, "gzip");
+        assertThat(encoded.length).isLessThan(body.length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(encoded))) {
+            assertThat(in.readAllBytes()).isEqualTo(body);
+        }
+        HttpRequest request = new HttpRequest();
+        request.setBodyBytes(encoded);
+        assertThat(HttpExecutor.isGzipped(request)).isTrue();
+        request.setBodyBytes(body);
+        assertThat(HttpExecutor.isGzipped(request)).isFalse();
+        assertThat(HttpExecutor.isSupportedEncoding("deflate")).isTrue();
+        assertThat(HttpExecutor.isSupportedEncoding("zstd")).isFalse();
+    }
 }
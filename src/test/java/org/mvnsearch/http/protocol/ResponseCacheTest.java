@@ -0,0 +1,54 @@
+package org.mvnsearch.http.protocol;
+
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaders;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mvnsearch.http.model.HttpRequest;
+import org.mvnsearch.http.model.HttpRequestParser;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResponseCacheTest {
+
+    @Test
+    public void testMaxAge() {
+        assertThat(ResponseCache.maxAge(new DefaultHttpHeaders().add("Cache-Control", "public, max-age=60"))).isEqualTo(60);
+        assertThat(ResponseCache.maxAge(new DefaultHttpHeaders().add("Cache-Control", "max-age=60, no-cache"))).isEqualTo(0);
+        assertThat(ResponseCache.maxAge(new DefaultHttpHeaders()
+                .add("Date", "Wed, 21 Oct 2015 07:28:00 GMT")
+                .add("Expires", "Wed, 21 Oct 2015 07:38:00 GMT"))).isEqualTo(600);
+    }
+
+    @Test
+    public void testStoreAndRevalidate(@TempDir Path baseDir) {
+        System.setProperty("http.file", baseDir.resolve("index.http").toString());
+        System.setProperty("httpx.responseCache", "1m");
+        try {
+            final HttpRequest httpRequest = HttpRequestParser.splitRequests("GET https://httpbin.org/etag/demo").get(0);
+            HttpRequestParser.parse(httpRequest, new HashMap<>());
+            final ResponseCache responseCache = ResponseCache.open(httpRequest);
+            assertThat(responseCache).isNotNull();
+            assertThat(responseCache.lookup(httpRequest)).isNull();
+            final HttpHeaders responseHeaders = new DefaultHttpHeaders().add("Content-Type", "application/json").add("ETag", "\"demo\"");
+            responseCache.store(httpRequest, 200, responseHeaders, "{}".getBytes(StandardCharsets.UTF_8));
+            final ResponseCache.Entry entry = responseCache.lookup(httpRequest);
+            assertThat(entry).isNotNull();
+            assertThat(entry.isFresh()).isFalse();
+            assertThat(new String(entry.body(), StandardCharsets.UTF_8)).isEqualTo("{}");
+            final HttpHeaders requestHeaders = new DefaultHttpHeaders();
+            entry.addValidators(requestHeaders);
+            assertThat(requestHeaders.get("If-None-Match")).isEqualTo("\"demo\"");
+            final ResponseCache.Entry refreshed = responseCache.refresh(httpRequest, entry, new DefaultHttpHeaders().add("Cache-Control", "max-age=60"));
+            assertThat(refreshed.isFresh()).isTrue();
+            assertThat(refreshed.toHttpHeaders().get("Content-Type")).isEqualTo("application/json");
+        } finally {
+            System.clearProperty("http.file");
+            System.clearProperty("httpx.responseCache");
+        }
+    }
+}
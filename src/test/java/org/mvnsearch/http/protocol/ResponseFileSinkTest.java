@@ -0,0 +1,36 @@
+package org.mvnsearch.http.protocol;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResponseFileSinkTest {
+
+    @Test
+    public void testResolve(@TempDir Path baseDir) throws Exception {
+        assertThat(ResponseFileSink.resolve(baseDir, "../demo.json", false)).isNull();
+        assertThat(ResponseFileSink.resolve(baseDir, "/etc/passwd", true)).isNull();
+        assertThat(ResponseFileSink.resolve(baseDir, "output/demo.json", false)).isEqualTo(baseDir.resolve("output/demo.json"));
+        Files.writeString(baseDir.resolve("demo.json"), "{}");
+        assertThat(ResponseFileSink.resolve(baseDir, "demo.json", true)).isEqualTo(baseDir.resolve("demo.json"));
+        assertThat(ResponseFileSink.resolve(baseDir, "demo.json", false)).isEqualTo(baseDir.resolve("demo-1.json"));
+    }
+
+    @Test
+    public void testResolveSymbolicLink(@TempDir Path baseDir, @TempDir Path outsideDir) throws Exception {
+        Files.createSymbolicLink(baseDir.resolve("linkdir"), outsideDir);
+        assertThat(ResponseFileSink.resolve(baseDir, "linkdir/a/b/out.json", true)).isNull();
+        assertThat(outsideDir.resolve("a")).doesNotExist();
+    }
+
+    @Test
+    public void testParseSize() {
+        assertThat(ResponseFileSink.parseSize("1024")).isEqualTo(1024L);
+        assertThat(ResponseFileSink.parseSize("512k")).isEqualTo(512L * 1024);
+        assertThat(ResponseFileSink.parseSize("2G")).isEqualTo(2L * 1024 * 1024 * 1024);
+    }
+}
@@ -0,0 +1,18 @@
+package org.mvnsearch.http.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DurationUtilsTest {
+
+    @Test
+    public void testParse() {
+        assertThat(DurationUtils.parse("500ms")).isEqualTo(Duration.ofMillis(500));
+        assertThat(DurationUtils.parse("30s")).isEqualTo(Duration.ofSeconds(30));
+        assertThat(DurationUtils.parse("2m")).isEqualTo(Duration.ofMinutes(2));
+        assertThat(DurationUtils.parse("10")).isEqualTo(Duration.ofSeconds(10));
+    }
+}
@@ -0,0 +1,37 @@
+package org.mvnsearch.http.utils;
+
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.PathNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JsonPathUtilsTest {
+    private static final String JSON = """
+            {"data": {"total": 2, "items": [{"id": 1, "tags": ["a", "b"]}, {"id": 2, "name": "second"}]}, "ok": true}
+            """;
+
+    @Test
+    public void testSimplePath() throws Exception {
+        assertThat(JsonPathUtils.parseSimplePath("$.data.items[*].id")).hasSize(4);
+        assertThat(JsonPathUtils.parseSimplePath("$..id")).isNull();
+        assertThat(JsonPathUtils.parseSimplePath("$.data.items[?(@.id > 1)]")).isNull();
+        assertThat(JsonPathUtils.read(JSON, "$.data.items[*].id")).isEqualTo(List.of(1, 2));
+        assertThat(JsonPathUtils.read(JSON, "$.data.total")).isEqualTo(2);
+        assertThat(JsonPathUtils.read(JSON, "$['data']['items'][1].name")).isEqualTo("second");
+        assertThat(JsonPathUtils.read(JSON, "$.data.items[0].tags")).isEqualTo(List.of("a", "b"));
+        assertThat(JsonPathUtils.read(JSON, "$.data.items[*].name")).isEqualTo(List.of("second"));
+        assertThat(JsonPathUtils.read(JSON, "$.data.items[1]")).isEqualTo(Map.of("id", 2, "name", "second"));
+        assertThatThrownBy(() -> JsonPathUtils.read(JSON, "$.data.missing")).isInstanceOf(PathNotFoundException.class);
+    }
+
+    @Test
+    public void testFallback() throws Exception {
+        assertThat(JsonPathUtils.read(JSON, "$..id")).isEqualTo(JsonPath.read(JSON, "$..id"));
+        assertThat(JsonPathUtils.compile("$..id")).isSameAs(JsonPathUtils.compile("$..id"));
+    }
+}
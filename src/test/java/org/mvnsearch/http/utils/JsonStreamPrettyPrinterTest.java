@@ -0,0 +1,33 @@
+package org.mvnsearch.http.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JsonStreamPrettyPrinterTest {
+
+    @Test
+    public void testChunkedJson() throws Exception {
+        String jsonText = "{\"id\":1,\"name\":\"jackie\",\"tags\":[\"a\",\"b\"],\"nested\":{\"price\":1.5}}";
+        assertThat(print(jsonText, 3)).isEqualTo(JsonUtils.writeValueAsPrettyString(JsonUtils.readValue(jsonText, Object.class)));
+    }
+
+    @Test
+    public void testMalformedJson() throws Exception {
+        assertThat(print("{\"id\":1,}}", 4)).contains("\"id\" : 1").endsWith("}");
+    }
+
+    private String print(String jsonText, int chunkSize) throws Exception {
+        final byte[] bytes = jsonText.getBytes(StandardCharsets.UTF_8);
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (JsonStreamPrettyPrinter printer = new JsonStreamPrettyPrinter(bos, false)) {
+            for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+                printer.write(bytes, offset, Math.min(chunkSize, bytes.length - offset));
+            }
+        }
+        return bos.toString(StandardCharsets.UTF_8);
+    }
+}
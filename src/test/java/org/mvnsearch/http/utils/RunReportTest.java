@@ -0,0 +1,40 @@
+package org.mvnsearch.http.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mvnsearch.http.model.HttpRequest;
+import org.mvnsearch.http.model.HttpRequestParser;
+import org.mvnsearch.http.vendor.JavaScriptEngine;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RunReportTest {
+
+    @Test
+    public void testJunitReport(@TempDir Path tempDir) throws Exception {
+        final HttpRequest request = HttpRequestParser.parse("""
+                ### ip
+                #@name myip
+                GET https://httpbin.org/ip
+                """, Map.of()).get(0);
+        request.setResponseStatus(200);
+        request.setResponseBytes(32);
+        request.setTestCases(List.of(new JavaScriptEngine.TestCase("status", true, null),
+                new JavaScriptEngine.TestCase("origin <ip>", false, "not found")));
+        final Map<String, Object> record = RunReport.toRecord(request, 12.345, null);
+        assertThat(record).containsEntry("status", 200).containsEntry("responseBytes", 32L)
+                .containsEntry("uri", "https://httpbin.org/ip").containsEntry("success", false);
+        final Path reportFile = tempDir.resolve("report.xml");
+        try (RunReport report = RunReport.open("junit", reportFile.toString())) {
+            report.record(request, 12.345, null);
+        }
+        final String xml = Files.readString(reportFile);
+        assertThat(xml).contains("tests=\"3\" failures=\"1\" errors=\"0\"").contains("name=\"origin &lt;ip&gt;\"").contains("<failure message=\"not found\"/>").endsWith("</testsuite>\n");
+        assertThat(tempDir.resolve("report.xml.part")).doesNotExist();
+    }
+}